@@ -0,0 +1,7 @@
+#!/bin/sh
+# Builds the JMH benchmarks and runs them with the given JMH options, for example
+#   bench/run.sh -f 1 -wi 3 -i 5 Propagate
+# Run it from the top of the repository: the benchmarks read their files from TestInputs.
+set -e
+mvn -q -f bench/pom.xml package
+java -jar bench/target/benchmarks.jar "$@"
@@ -0,0 +1,52 @@
+package SimpleSAT;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.GZIPInputStream;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// The CNF file a benchmark runs on.  The files are looked up in TestInputs, or in the directory named by the
+// simplesat.inputs system property, and others can be given with -p file=a.cnf,b.cnf.gz.  JMH needs the states and
+// benchmarks to be public; the solver classes they use stay package-private.
+
+@State(Scope.Benchmark)
+public class Input {
+    @Param({ "ais8.cnf", "anand.cnf", "bronze1.cnf", "bronze2.cnf", "bronze3.cnf", "dubois20.cnf",
+            "factor1234321.cnf", "gold1.cnf", "hole6.cnf", "quinn.cnf", "silver1.cnf" })
+    public String file;
+
+    String path;
+    // The size of the DIMACS text, after inflating a gzip file, so parse rates compare across both.
+    long bytes;
+
+    @Setup(Level.Trial)
+    public void resolve() throws IOException {
+        Path resolved = Paths.get(System.getProperty("simplesat.inputs", "TestInputs"), file);
+        path = resolved.toString();
+        bytes = Files.size(resolved);
+        if (file.endsWith(".gz")) {
+            bytes = 0;
+            byte[] buffer = new byte[1 << 16];
+            try (InputStream input = new GZIPInputStream(Files.newInputStream(resolved))) {
+                int read;
+                while ((read = input.read(buffer)) > 0) {
+                    bytes += read;
+                }
+            }
+        }
+    }
+
+    DimacsParser parse() throws IOException {
+        DimacsParser parser = new DimacsParser(Runtime.getRuntime().availableProcessors());
+        parser.parse(path);
+        return parser;
+    }
+}
@@ -0,0 +1,51 @@
+package SimpleSAT;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The Preprocessor on the parsed clauses.  It simplifies in place, so every call works on a fresh copy of the arena,
+// and the copy is timed with it.  The clauses counter gives the input clauses preprocessed per second.
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class PreprocessBenchmark {
+    private ClauseArena clauses;
+    private int maxVariable;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long clauses;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp(Input input) throws IOException {
+        DimacsParser parser = input.parse();
+        clauses = parser.getClauses();
+        maxVariable = parser.getMaxVariable();
+    }
+
+    @Benchmark
+    public boolean preprocess(Counters counters) {
+        Preprocessor preprocessor = new Preprocessor(new ClauseArena(clauses), maxVariable);
+        counters.clauses += clauses.getNumberOfClauses();
+        return preprocessor.simplify();
+    }
+}
@@ -0,0 +1,62 @@
+package SimpleSAT;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Unit propagation through Search.probe.  Every call probes the next literal, going through every variable both
+// ways.  A probe backtracks to level 0 before and after it propagates, so the time includes undoing the assignments
+// and saving their phases.  The propagations counter gives the literals propagated per second.
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Thread)
+public class PropagateBenchmark {
+    private Search search;
+    private int[] literals;
+    private final int[] probe = new int[1];
+    private int next;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long propagations;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp(Input input) throws IOException {
+        DimacsParser parser = input.parse();
+        int[] variables = parser.getVariables();
+        search = new Search(parser.getClauses(), parser.getMaxVariable(), variables);
+        literals = new int[2 * variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            literals[2 * i] = Literal.fromVariable(variables[i], true);
+            literals[2 * i + 1] = Literal.fromVariable(variables[i], false);
+        }
+    }
+
+    @Benchmark
+    public int propagate(Counters counters) {
+        probe[0] = literals[next];
+        next = next + 1 == literals.length ? 0 : next + 1;
+        long before = search.getNumberOfPropagations();
+        int assigned = search.probe(probe, 1);
+        counters.propagations += search.getNumberOfPropagations() - before;
+        return assigned;
+    }
+}
@@ -0,0 +1,253 @@
+package SimpleSAT;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// The Java Flight Recorder events of SolverEvents.  Needs JDK 11 or later; SolverEvents loads it by name when it is
+// on the class path.  An event is only created when a running recording has its type enabled.  None of them records
+// a stack trace: the phase is the event.
+
+final class JfrEvents extends SolverEvents {
+    private static final EventType PARSE = EventType.getEventType(Parse.class);
+    private static final EventType PREPROCESS = EventType.getEventType(Preprocess.class);
+    private static final EventType SOLVE = EventType.getEventType(Solve.class);
+    private static final EventType PROPAGATE = EventType.getEventType(Propagate.class);
+    private static final EventType CONFLICT = EventType.getEventType(Conflict.class);
+    private static final EventType RESTART = EventType.getEventType(Restart.class);
+    private static final EventType REDUCE = EventType.getEventType(Reduce.class);
+
+    JfrEvents() {
+    }
+
+    private static <E extends Event> E begin(E event) {
+        event.begin();
+        return event;
+    }
+
+    @Override
+    Object beginParse() {
+        return PARSE.isEnabled() ? begin(new Parse()) : null;
+    }
+
+    @Override
+    void commitParse(Object event, String source, int variables, int clauses) {
+        Parse parse = (Parse) event;
+        parse.end();
+        if (parse.shouldCommit()) {
+            parse.source = source;
+            parse.variables = variables;
+            parse.clauses = clauses;
+            parse.commit();
+        }
+    }
+
+    @Override
+    Object beginPreprocess() {
+        return PREPROCESS.isEnabled() ? begin(new Preprocess()) : null;
+    }
+
+    @Override
+    void commitPreprocess(Object event, int subsumed, int strengthened, int eliminated, int clauses) {
+        Preprocess preprocess = (Preprocess) event;
+        preprocess.end();
+        if (preprocess.shouldCommit()) {
+            preprocess.subsumed = subsumed;
+            preprocess.strengthened = strengthened;
+            preprocess.eliminated = eliminated;
+            preprocess.clauses = clauses;
+            preprocess.commit();
+        }
+    }
+
+    @Override
+    Object beginSolve() {
+        return SOLVE.isEnabled() ? begin(new Solve()) : null;
+    }
+
+    @Override
+    void commitSolve(Object event, String result, int assumptions, long decisions, long conflicts,
+            long propagations) {
+        Solve solve = (Solve) event;
+        solve.end();
+        if (solve.shouldCommit()) {
+            solve.result = result;
+            solve.assumptions = assumptions;
+            solve.decisions = decisions;
+            solve.conflicts = conflicts;
+            solve.propagations = propagations;
+            solve.commit();
+        }
+    }
+
+    @Override
+    Object beginPropagate() {
+        return PROPAGATE.isEnabled() ? begin(new Propagate()) : null;
+    }
+
+    @Override
+    void commitPropagate(Object event, long literals, boolean conflict) {
+        Propagate propagate = (Propagate) event;
+        propagate.end();
+        if (propagate.shouldCommit()) {
+            propagate.literals = literals;
+            propagate.conflict = conflict;
+            propagate.commit();
+        }
+    }
+
+    @Override
+    Object beginConflict() {
+        return CONFLICT.isEnabled() ? begin(new Conflict()) : null;
+    }
+
+    @Override
+    void commitConflict(Object event, int level, int backjumpLevel, int size, int lbd) {
+        Conflict conflict = (Conflict) event;
+        conflict.end();
+        if (conflict.shouldCommit()) {
+            conflict.level = level;
+            conflict.backjumpLevel = backjumpLevel;
+            conflict.size = size;
+            conflict.lbd = lbd;
+            conflict.commit();
+        }
+    }
+
+    @Override
+    void restart(long conflicts, int level, int trail) {
+        if (!RESTART.isEnabled()) {
+            return;
+        }
+        Restart restart = new Restart();
+        if (restart.shouldCommit()) {
+            restart.conflicts = conflicts;
+            restart.level = level;
+            restart.trail = trail;
+            restart.commit();
+        }
+    }
+
+    @Override
+    Object beginReduce() {
+        return REDUCE.isEnabled() ? begin(new Reduce()) : null;
+    }
+
+    @Override
+    void commitReduce(Object event, int before, int after, long bytes) {
+        Reduce reduce = (Reduce) event;
+        reduce.end();
+        if (reduce.shouldCommit()) {
+            reduce.before = before;
+            reduce.after = after;
+            reduce.bytes = bytes;
+            reduce.commit();
+        }
+    }
+
+    @Name("SimpleSAT.Parse")
+    @Label("Parse")
+    @Category({ "SimpleSAT", "Phases" })
+    @StackTrace(false)
+    static final class Parse extends Event {
+        @Label("Source")
+        String source;
+        @Label("Variables")
+        int variables;
+        @Label("Clauses")
+        int clauses;
+    }
+
+    @Name("SimpleSAT.Preprocess")
+    @Label("Preprocess")
+    @Category({ "SimpleSAT", "Phases" })
+    @StackTrace(false)
+    static final class Preprocess extends Event {
+        @Label("Subsumed")
+        int subsumed;
+        @Label("Strengthened")
+        int strengthened;
+        @Label("Eliminated")
+        int eliminated;
+        @Label("Clauses Left")
+        int clauses;
+    }
+
+    @Name("SimpleSAT.Solve")
+    @Label("Solve")
+    @Description("One call of solve on a search, from the first propagation to its answer")
+    @Category({ "SimpleSAT", "Phases" })
+    @StackTrace(false)
+    static final class Solve extends Event {
+        @Label("Result")
+        String result;
+        @Label("Assumptions")
+        int assumptions;
+        @Label("Decisions")
+        long decisions;
+        @Label("Conflicts")
+        long conflicts;
+        @Label("Propagations")
+        long propagations;
+    }
+
+    // Recorded for one propagation call in PROPAGATE_SAMPLE.
+    @Name("SimpleSAT.Propagate")
+    @Label("Propagate")
+    @Category({ "SimpleSAT", "Search" })
+    @StackTrace(false)
+    static final class Propagate extends Event {
+        @Label("Literals Propagated")
+        long literals;
+        @Label("Conflict")
+        boolean conflict;
+    }
+
+    // Recorded for one conflict in CONFLICT_SAMPLE, from the start of its analysis until the learned clause is added.
+    @Name("SimpleSAT.Conflict")
+    @Label("Conflict")
+    @Category({ "SimpleSAT", "Search" })
+    @StackTrace(false)
+    static final class Conflict extends Event {
+        @Label("Decision Level")
+        int level;
+        @Label("Backjump Level")
+        int backjumpLevel;
+        @Label("Learned Clause Size")
+        int size;
+        @Label("LBD")
+        int lbd;
+    }
+
+    @Name("SimpleSAT.Restart")
+    @Label("Restart")
+    @Category({ "SimpleSAT", "Search" })
+    @StackTrace(false)
+    static final class Restart extends Event {
+        @Label("Conflicts")
+        long conflicts;
+        @Label("Decision Level")
+        int level;
+        @Label("Trail Size")
+        int trail;
+    }
+
+    @Name("SimpleSAT.Reduce")
+    @Label("Reduce Learned Clauses")
+    @Category({ "SimpleSAT", "Search" })
+    @StackTrace(false)
+    static final class Reduce extends Event {
+        @Label("Learned Before")
+        int before;
+        @Label("Learned After")
+        int after;
+        @Label("Clause Database")
+        @DataAmount
+        long bytes;
+    }
+}
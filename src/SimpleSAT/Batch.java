@@ -0,0 +1,171 @@
+package SimpleSAT;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Solves many formulas in one JVM.
+// The instances are every .cnf or .cnf.gz file of a directory, or the files listed in a manifest, one path per line,
+// relative to the manifest.  They are solved on a fixed pool of threads, one search per instance, and a line of CSV
+// or JSON is printed for each as soon as it is done.  An instance that runs past the timeout has its search stopped
+// and is reported as TIMEOUT, and one that runs out of its budget of conflicts, propagations, memory or time, as
+// UNKNOWN.
+
+class Batch {
+    private final Path source;
+    private final int threads;
+    private final long timeoutMillis;
+    private final boolean json;
+    // Restart policies keep state, so every instance gets its own by name.
+    private String restartPolicy;
+    // The limits of every instance, as Formula takes them.  0 is no limit.
+    private long timeLimit, conflictLimit, propagationLimit, memoryLimit;
+
+    // A timeout of 0 lets every instance run to the end.
+    Batch(Path source, int threads, long timeoutMillis, boolean json) {
+        this.source = source;
+        this.threads = threads;
+        this.timeoutMillis = timeoutMillis;
+        this.json = json;
+    }
+
+    void setRestartPolicy(String restartPolicy) {
+        this.restartPolicy = restartPolicy;
+    }
+
+    void setLimits(long timeLimitMillis, long conflicts, long propagations, long memoryBytes) {
+        this.timeLimit = timeLimitMillis;
+        this.conflictLimit = conflicts;
+        this.propagationLimit = propagations;
+        this.memoryLimit = memoryBytes;
+    }
+
+    // Returns once every instance has been reported.
+    void run() throws IOException, InterruptedException {
+        List<Path> instances = listInstances();
+        if (!json) {
+            System.out.println("file,status,time_ms,decisions,conflicts,propagations");
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        for (final Path instance : instances) {
+            pool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    solve(instance, timer);
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        timer.shutdownNow();
+    }
+
+    private List<Path> listInstances() throws IOException {
+        List<Path> instances = new ArrayList<>();
+        if (Files.isDirectory(source)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(source, "*.{cnf,cnf.gz}")) {
+                for (Path file : files) {
+                    instances.add(file);
+                }
+            }
+            Collections.sort(instances);
+        } else {
+            Path directory = source.toAbsolutePath().getParent();
+            for (String line : Files.readAllLines(source, StandardCharsets.UTF_8)) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    instances.add(directory.resolve(line));
+                }
+            }
+        }
+        return instances;
+    }
+
+    private void solve(Path instance, ScheduledExecutorService timer) {
+        long start = System.nanoTime();
+        final AtomicBoolean stop = new AtomicBoolean();
+        ScheduledFuture<?> timeout = null;
+        if (timeoutMillis > 0) {
+            timeout = timer.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    stop.set(true);
+                }
+            }, timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+
+        String status;
+        Formula formula = null;
+        try {
+            formula = new Formula(instance.toString());
+            if (restartPolicy != null) formula.setRestartPolicy(RestartPolicy.forName(restartPolicy));
+            formula.setTimeLimit(timeLimit);
+            formula.setConflictLimit(conflictLimit);
+            formula.setPropagationLimit(propagationLimit);
+            formula.setMemoryLimit(memoryLimit);
+            Status result = formula.solveUntil(stop);
+            if (result == Status.UNKNOWN) {
+                status = stop.get() ? "TIMEOUT" : "UNKNOWN";
+            } else {
+                status = result.name();
+            }
+        } catch (IOException e) {
+            status = "ERROR";
+        } catch (RuntimeException e) {
+            status = "ERROR";
+        } finally {
+            if (timeout != null) timeout.cancel(false);
+        }
+
+        long millis = (System.nanoTime() - start) / 1000000;
+        long decisions = formula == null ? 0 : formula.getNumberOfDecisions();
+        long conflicts = formula == null ? 0 : formula.getNumberOfConflicts();
+        long propagations = formula == null ? 0 : formula.getNumberOfPropagations();
+        String line;
+        if (json) {
+            line = "{\"file\":\"" + escape(instance.toString()) + "\",\"status\":\"" + status
+                    + "\",\"time_ms\":" + millis + ",\"decisions\":" + decisions + ",\"conflicts\":" + conflicts
+                    + ",\"propagations\":" + propagations + "}";
+        } else {
+            line = quote(instance.toString()) + "," + status + "," + millis + "," + decisions + "," + conflicts
+                    + "," + propagations;
+        }
+        System.out.println(line);
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    // CSV fields are only quoted when they have to be.
+    private static String quote(String text) {
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0) {
+            return text;
+        }
+        return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+}
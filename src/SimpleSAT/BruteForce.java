@@ -0,0 +1,153 @@
+package SimpleSAT;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Tries every assignment of the variables, 64 at a time.
+// Assignment number a gives variable i the value of bit i of a.  The assignments are bitsliced: a block of 64
+// consecutive assignments is one long per variable, bit j holding the variable's value in assignment 64*block + j.
+// The first six variables take the same constant patterns in every block and the others are all ones or all zeros,
+// from the bits of the block number.  A clause is then the OR of its literals' words and the formula the AND of its
+// clauses, which leaves a bit set for every satisfying assignment of the block.  The blocks are split into one range
+// per thread, and every thread gives up once any of them has found a model.
+
+class BruteForce {
+    // Above this many variables the assignment numbers don't fit in a long.  The search would not finish anyway.
+    static final int MAX_VARIABLES = 62;
+    private static final int WORD_BITS = 6;
+    private static final long[] PATTERNS = {
+            0xAAAAAAAAAAAAAAAAL, 0xCCCCCCCCCCCCCCCCL, 0xF0F0F0F0F0F0F0F0L,
+            0xFF00FF00FF00FF00L, 0xFFFF0000FFFF0000L, 0xFFFFFFFF00000000L };
+    // How many blocks a thread evaluates between checks for a model found by another.
+    private static final int CHECK_INTERVAL = 1 << 10;
+    private static final long NOT_FOUND = -1;
+
+    private final int[] variables;
+    private final int maxVariable;
+    private final int threads;
+    // Each clause as codes of 2 * index + sign, index being the variable's position in variables.  Shorter clauses
+    // come first, as they are the likeliest to rule out a whole block.
+    private final int[][] clauseCodes;
+
+    private final AtomicLong found = new AtomicLong(NOT_FOUND);
+    private final AtomicLong assignmentsTried = new AtomicLong();
+
+    BruteForce(ClauseArena clauses, int[] variables, int maxVariable, int threads) {
+        this.variables = variables;
+        this.maxVariable = maxVariable;
+        this.threads = threads;
+
+        int[] index = new int[maxVariable + 1];
+        for (int i = 0; i < variables.length; i++) {
+            index[variables[i]] = i;
+        }
+        List<int[]> codes = new ArrayList<>();
+        for (int ref = clauses.first(); ref < clauses.end(); ref = clauses.next(ref)) {
+            if (clauses.isDeleted(ref)) continue;
+            int[] clause = new int[clauses.size(ref)];
+            for (int i = 0; i < clause.length; i++) {
+                int literal = clauses.literal(ref, i);
+                clause[i] = 2 * index[Literal.variable(literal)] + (Literal.isNegative(literal) ? 1 : 0);
+            }
+            codes.add(clause);
+        }
+        clauseCodes = codes.toArray(new int[codes.size()][]);
+        Arrays.sort(clauseCodes, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] a, int[] b) {
+                return Integer.compare(a.length, b.length);
+            }
+        });
+    }
+
+    // Returns true if the formula is SAT.  The model can then be read with getModel.
+    boolean solve() {
+        final long blocks = 1L << Math.max(0, variables.length - WORD_BITS);
+        // With fewer than six variables a block holds the same assignment more than once, which is harmless.
+        int workers = (int) Math.min(threads, blocks);
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        List<Future<?>> ranges = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            final long from = blocks * i / workers;
+            final long to = blocks * (i + 1) / workers;
+            ranges.add(pool.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    search(from, to);
+                    return null;
+                }
+            }));
+        }
+
+        try {
+            for (Future<?> range : ranges) {
+                range.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while solving", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A brute force worker failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return found.get() != NOT_FOUND;
+    }
+
+    private void search(long from, long to) {
+        long block = from;
+        while (block < to && found.get() == NOT_FOUND) {
+            long end = Math.min(to, block + CHECK_INTERVAL);
+            for (; block < end; block++) {
+                long satisfied = evaluate(block);
+                if (satisfied != 0) {
+                    found.compareAndSet(NOT_FOUND, (block << WORD_BITS) | Long.numberOfTrailingZeros(satisfied));
+                    assignmentsTried.addAndGet((block + 1 - from) << WORD_BITS);
+                    return;
+                }
+            }
+        }
+        assignmentsTried.addAndGet((block - from) << WORD_BITS);
+    }
+
+    // Returns the satisfying assignments of a block, one bit each.
+    private long evaluate(long block) {
+        long satisfied = -1L;
+        for (int[] clause : clauseCodes) {
+            long any = 0;
+            for (int code : clause) {
+                int index = code >>> 1;
+                long word = index < WORD_BITS ? PATTERNS[index] : -((block >>> (index - WORD_BITS)) & 1L);
+                any |= (code & 1) == 0 ? word : ~word;
+            }
+            satisfied &= any;
+            if (satisfied == 0) {
+                return 0;
+            }
+        }
+        return satisfied;
+    }
+
+    // The value of each variable in the model found, indexed by variable.
+    boolean[] getModel() {
+        boolean[] model = new boolean[maxVariable + 1];
+        long assignment = found.get();
+        for (int i = 0; i < variables.length; i++) {
+            model[variables[i]] = ((assignment >>> i) & 1L) != 0;
+        }
+        return model;
+    }
+
+    long getNumberOfAssignmentsTried() {
+        return assignmentsTried.get();
+    }
+}
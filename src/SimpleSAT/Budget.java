@@ -0,0 +1,37 @@
+package SimpleSAT;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// What a solve may spend before it gives up and answers UNKNOWN: a number of conflicts and of propagations, each
+// counted by every search from the start of its own solve, the bytes its clause database may take, a deadline, and
+// a flag any thread can set to interrupt it.  The search checks it on every pass of its loop, so it only ever reads
+// two counters and the flag there; the clock and the size of the clause database are read once every few passes.
+
+final class Budget {
+    static final long UNLIMITED = Long.MAX_VALUE;
+
+    final long conflicts;
+    final long propagations;
+    final long memory;
+    private final long deadline;
+    private final boolean timed;
+    private final AtomicBoolean interrupted;
+
+    // The time limit, in nanoseconds, starts now.
+    Budget(long conflicts, long propagations, long memory, long timeLimit, AtomicBoolean interrupted) {
+        this.conflicts = conflicts;
+        this.propagations = propagations;
+        this.memory = memory;
+        this.timed = timeLimit != UNLIMITED;
+        this.deadline = timed ? System.nanoTime() + timeLimit : 0;
+        this.interrupted = interrupted;
+    }
+
+    boolean isInterrupted() {
+        return interrupted.get();
+    }
+
+    boolean isTimeUp() {
+        return timed && System.nanoTime() - deadline >= 0;
+    }
+}
@@ -0,0 +1,220 @@
+package SimpleSAT;
+
+import java.util.Arrays;
+
+// Stores every clause of a formula in one flat int array.  Each clause is a header followed by its literals:
+//   data[ref]     number of literals
+//   data[ref + 1] flags, with the LBD of a learnt clause in the bits above LBD_SHIFT
+//   data[ref + 2] activity of a learnt clause, as the bits of a float
+//   data[ref + 3] the literals, encoded as described in Literal
+// A clause is referred to by the index of its header, its ref.  A deleted clause is only flagged, so refs stay valid
+// and the clauses can be walked in the order they were added, until compact is called to reclaim the space.
+
+class ClauseArena {
+    static final int SIZE = 0;
+    static final int FLAGS = 1;
+    static final int ACTIVITY = 2;
+    static final int HEADER = 3;
+
+    static final int LEARNT = 1;
+    static final int DELETED = 2;
+    // A learnt clause the search has already tried to shorten.
+    static final int VIVIFIED = 4;
+    private static final int LBD_SHIFT = 3;
+
+    private int[] data;
+    private int end;
+    private int numberOfClauses;
+    // The number of ints taken up by deleted clauses.
+    private int wasted;
+
+    ClauseArena(int capacity) {
+        data = new int[Math.max(capacity, 16)];
+        end = 0;
+        numberOfClauses = 0;
+    }
+
+    // A copy of another arena.  Only the flat array is copied, so this is cheap even for large formulas.
+    ClauseArena(ClauseArena other) {
+        data = Arrays.copyOf(other.data, Math.max(16, other.end + (other.end >> 1)));
+        end = other.end;
+        numberOfClauses = other.numberOfClauses;
+        wasted = other.wasted;
+    }
+
+    // Adds the literals in literals[from] to literals[to - 1] as a new clause and returns its ref.  The literals of
+    // an original clause are stored sorted by variable with repeats removed, so two clauses over the same variables
+    // line up position by position.  A learnt clause keeps the order it is given in, which the search uses to put
+    // the literals it watches first.
+    int add(int[] literals, int from, int to, boolean learnt) {
+        int ref = end;
+        ensureCapacity(end + HEADER + (to - from));
+
+        int size = 0;
+        int start = ref + HEADER;
+        if (learnt) {
+            System.arraycopy(literals, from, data, start, to - from);
+            size = to - from;
+        } else {
+            for (int i = from; i < to; i++) {
+                int literal = literals[i];
+                int j = start + size;
+                while (j > start && data[j - 1] > literal) {
+                    data[j] = data[j - 1];
+                    j--;
+                }
+                if (j > start && data[j - 1] == literal) {
+                    // Repeated literal.  Undo the shift.
+                    System.arraycopy(data, j + 1, data, j, start + size - j);
+                    continue;
+                }
+                data[j] = literal;
+                size++;
+            }
+        }
+
+        data[ref + SIZE] = size;
+        data[ref + FLAGS] = learnt ? LEARNT : 0;
+        data[ref + ACTIVITY] = 0;
+        end = start + size;
+        numberOfClauses++;
+        return ref;
+    }
+
+    // Makes room for capacity ints in all, so that the arena isn't copied again while it fills up to there.
+    void ensureCapacity(int capacity) {
+        if (capacity > data.length) {
+            data = Arrays.copyOf(data, Math.max(capacity, data.length + (data.length >> 1)));
+        }
+    }
+
+    // Returns the backing array.  The search reads and reorders literals in it directly.  Adding a clause may
+    // replace the array, so it must be fetched again after every add.
+    int[] getData() {
+        return data;
+    }
+
+    int size(int ref) {
+        return data[ref + SIZE];
+    }
+
+    int literal(int ref, int i) {
+        return data[ref + HEADER + i];
+    }
+
+    boolean isLearnt(int ref) {
+        return (data[ref + FLAGS] & LEARNT) != 0;
+    }
+
+    boolean isDeleted(int ref) {
+        return (data[ref + FLAGS] & DELETED) != 0;
+    }
+
+    void delete(int ref) {
+        if (!isDeleted(ref)) {
+            data[ref + FLAGS] |= DELETED;
+            numberOfClauses--;
+            wasted += HEADER + data[ref + SIZE];
+        }
+    }
+
+    boolean isVivified(int ref) {
+        return (data[ref + FLAGS] & VIVIFIED) != 0;
+    }
+
+    void setVivified(int ref) {
+        data[ref + FLAGS] |= VIVIFIED;
+    }
+
+    int getLBD(int ref) {
+        return data[ref + FLAGS] >>> LBD_SHIFT;
+    }
+
+    void setLBD(int ref, int lbd) {
+        data[ref + FLAGS] = (data[ref + FLAGS] & ((1 << LBD_SHIFT) - 1)) | (lbd << LBD_SHIFT);
+    }
+
+    float getActivity(int ref) {
+        return Float.intBitsToFloat(data[ref + ACTIVITY]);
+    }
+
+    void setActivity(int ref, float activity) {
+        data[ref + ACTIVITY] = Float.floatToIntBits(activity);
+    }
+
+    // Copies every clause of another arena to the end of this one, in order.  Refs into the other arena are
+    // shifted by the end of this one.
+    void append(ClauseArena other) {
+        ensureCapacity(end + other.end);
+        System.arraycopy(other.data, 0, data, end, other.end);
+        end += other.end;
+        numberOfClauses += other.numberOfClauses;
+        wasted += other.wasted;
+    }
+
+    // Moves every clause that has not been deleted towards the front, keeping their order, and drops the deleted
+    // ones.  Returns an array in which forward[oldRef] is the new ref of each clause that was kept; the entries for
+    // deleted clauses are meaningless.  Every ref held outside the arena must be updated through it.
+    int[] compact() {
+        int[] forward = data;
+        int live = end - wasted;
+        int[] compacted = new int[Math.max(16, live + (live >> 1))];
+        int newEnd = 0;
+        int ref = 0;
+        while (ref < end) {
+            int length = HEADER + forward[ref + SIZE];
+            if ((forward[ref + FLAGS] & DELETED) == 0) {
+                System.arraycopy(forward, ref, compacted, newEnd, length);
+                forward[ref] = newEnd;
+                newEnd += length;
+            }
+            ref += length;
+        }
+        data = compacted;
+        end = newEnd;
+        wasted = 0;
+        return forward;
+    }
+
+    // A clause containing both x and -x is always satisfied.  This relies on the order add stores literals in, so it
+    // must be checked before the search starts reordering them.
+    boolean isTautology(int ref) {
+        int start = ref + HEADER;
+        for (int i = start + 1; i < start + data[ref + SIZE]; i++) {
+            if (data[i] == Literal.negate(data[i - 1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Clauses are walked with: for (int ref = arena.first(); ref < arena.end(); ref = arena.next(ref))
+    int first() {
+        return 0;
+    }
+
+    int next(int ref) {
+        return ref + HEADER + data[ref + SIZE];
+    }
+
+    int end() {
+        return end;
+    }
+
+    // The number of clauses that have not been deleted.
+    int getNumberOfClauses() {
+        return numberOfClauses;
+    }
+
+    String toString(int ref) {
+        final String delimiter = " ";
+        StringBuilder output = new StringBuilder();
+
+        for (int i = 0; i < size(ref); i++) {
+            output.append(Literal.toDimacs(literal(ref, i)));
+            output.append(delimiter);
+        }
+
+        return output.toString();
+    }
+}
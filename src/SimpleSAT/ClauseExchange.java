@@ -0,0 +1,57 @@
+package SimpleSAT;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Shares learned clauses between the workers of a portfolio without locks.
+// The exchange is a fixed ring of slots.  A worker publishes a clause by claiming the next sequence number with a
+// single getAndIncrement and storing the clause, tagged with that number, in its slot.  Every worker reads with its
+// own cursor and checks the tag, so a slot that was overwritten or not written yet is just skipped.  A reader that
+// falls more than a ring behind jumps ahead and loses the clauses in between, which is fine: sharing only helps the
+// search, it is never needed for a correct answer.
+
+final class ClauseExchange {
+    private final AtomicReferenceArray<Shared> slots;
+    private final AtomicLong published = new AtomicLong();
+
+    // A published clause.  The literals are copied on publishing and never changed afterwards.
+    static final class Shared {
+        final long sequence;
+        final int source;
+        final int lbd;
+        final int[] literals;
+
+        Shared(long sequence, int source, int lbd, int[] literals) {
+            this.sequence = sequence;
+            this.source = source;
+            this.lbd = lbd;
+            this.literals = literals;
+        }
+    }
+
+    ClauseExchange(int capacity) {
+        slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    void publish(int source, int[] literals, int size, int lbd) {
+        int[] copy = new int[size];
+        System.arraycopy(literals, 0, copy, 0, size);
+        long sequence = published.getAndIncrement();
+        slots.set((int) (sequence % slots.length()), new Shared(sequence, source, lbd, copy));
+    }
+
+    // The number of clauses published so far.  Readers read up to it.
+    long getPublished() {
+        return published.get();
+    }
+
+    int getCapacity() {
+        return slots.length();
+    }
+
+    // The clause published with the given sequence number, or null if its slot holds another one.
+    Shared get(long sequence) {
+        Shared shared = slots.get((int) (sequence % slots.length()));
+        return shared != null && shared.sequence == sequence ? shared : null;
+    }
+}
@@ -0,0 +1,245 @@
+package SimpleSAT;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Splits the formula into cubes and solves them in parallel.
+// A cube is a set of assumptions.  The splitter builds a binary tree of them by lookahead: at each node the most
+// frequent variables, in the order of the occurrence counts the formula sorted its variables by, are tried both ways
+// on top of the cube so far, and the one whose two branches assign the most variables is split on.  A branch that
+// fails on propagation is dropped, and its other side is added to the cube without a split.  The leaves are then
+// solved on a ForkJoinPool, whose work stealing keeps every thread busy however unevenly the cubes are spread.
+// Each thread keeps its own search, with its own copy of the arena, across the cubes it solves, so clauses learned
+// on one cube still help with the next.  The first SAT cube stops all of them; the formula is unsat if every cube is.
+
+class CubeAndConquer {
+    // The variables tried at each node of the splitter, and the number of cubes made per thread.
+    private static final int CANDIDATES = 16;
+    private static final int CUBES_PER_THREAD = 8;
+    private static final int MAX_DEPTH = 12;
+
+    private final ClauseArena clauses;
+    private final int maxVariable;
+    private final int[] variables;
+    private final int threads;
+
+    private List<int[]> cubes;
+    private int[] probeBuffer;
+    private final AtomicBoolean stop = new AtomicBoolean();
+    private final AtomicReference<Search> winner = new AtomicReference<>();
+    private final ConcurrentLinkedQueue<Search> searches = new ConcurrentLinkedQueue<>();
+    private SolverMetrics metrics;
+    private Budget budget;
+    private RestartPolicy restartPolicy;
+    // Set when a cube ran out of budget, which leaves the answer unknown.
+    private volatile boolean outOfBudget;
+
+    private final ThreadLocal<Search> workerSearch = new ThreadLocal<Search>() {
+        @Override
+        protected Search initialValue() {
+            Search search = new Search(new ClauseArena(clauses), maxVariable, variables);
+            search.setStopFlag(stop);
+            search.setBudget(budget);
+            if (restartPolicy != null) search.setRestartPolicy(restartPolicy.copy());
+            if (metrics != null) search.setMetrics(metrics.newSlot());
+            searches.add(search);
+            return search;
+        }
+    };
+
+    CubeAndConquer(ClauseArena clauses, int maxVariable, int[] variables, int threads) {
+        this.clauses = clauses;
+        this.maxVariable = maxVariable;
+        this.variables = variables;
+        this.threads = threads;
+    }
+
+    // Returns true if the formula is SAT.  The search that found the model can then be read from getWinner.
+    boolean solve() {
+        int depth = 0;
+        while ( depth < MAX_DEPTH && (1 << depth) < threads * CUBES_PER_THREAD ) {
+            depth++;
+        }
+
+        cubes = new ArrayList<>();
+        probeBuffer = new int[depth + maxVariable + 1];
+        Search splitter = new Search(new ClauseArena(clauses), maxVariable, variables);
+        split(splitter, new int[0], depth);
+        if ( cubes.isEmpty() ) {
+            return false;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new CubeTask(0, cubes.size()));
+        } finally {
+            pool.shutdown();
+        }
+        return winner.get() != null;
+    }
+
+    private void split(Search splitter, int[] cube, int depth) {
+        if ( depth == 0 ) {
+            cubes.add(cube);
+            return;
+        }
+
+        System.arraycopy(cube, 0, probeBuffer, 0, cube.length);
+        int assigned = splitter.probe(probeBuffer, cube.length);
+        if ( assigned < 0 ) {
+            return;
+        }
+
+        int best = -1;
+        long bestScore = -1;
+        int considered = 0;
+        for (int i = 0; i < variables.length && considered < CANDIDATES; i++) {
+            int variable = variables[i];
+            if ( contains(cube, variable) ) {
+                continue;
+            }
+            int positive = probe(splitter, cube, Literal.fromVariable(variable, true));
+            int negative = probe(splitter, cube, Literal.fromVariable(variable, false));
+            if ( positive < 0 && negative < 0 ) {
+                return;
+            }
+            if ( positive < 0 || negative < 0 ) {
+                // Either the cube already implies the other side, or it is a failed literal and the cube is
+                // strengthened with its negation.
+                if ( Math.max(positive, negative) > assigned ) {
+                    cube = extend(cube, Literal.fromVariable(variable, positive >= 0));
+                    assigned = Math.max(positive, negative);
+                }
+                continue;
+            }
+            considered++;
+            // Like march, prefer the variable that shrinks both branches, not just one of them.
+            long score = (long) (positive + 1) * (negative + 1);
+            if ( score > bestScore ) {
+                bestScore = score;
+                best = variable;
+            }
+        }
+
+        if ( best == -1 ) {
+            cubes.add(cube);
+            return;
+        }
+        split(splitter, extend(cube, Literal.fromVariable(best, true)), depth - 1);
+        split(splitter, extend(cube, Literal.fromVariable(best, false)), depth - 1);
+    }
+
+    private int probe(Search splitter, int[] cube, int literal) {
+        System.arraycopy(cube, 0, probeBuffer, 0, cube.length);
+        probeBuffer[cube.length] = literal;
+        return splitter.probe(probeBuffer, cube.length + 1);
+    }
+
+    private static boolean contains(int[] cube, int variable) {
+        for (int literal : cube) {
+            if ( Literal.variable(literal) == variable ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] extend(int[] cube, int literal) {
+        int[] extended = Arrays.copyOf(cube, cube.length + 1);
+        extended[cube.length] = literal;
+        return extended;
+    }
+
+    // Solves the cubes from..to, halving the range until a single cube is left.  Tasks are never serialized.
+    @SuppressWarnings("serial")
+    private final class CubeTask extends RecursiveAction {
+        private final int from, to;
+
+        CubeTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if ( to - from > 1 ) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new CubeTask(from, middle), new CubeTask(middle, to));
+                return;
+            }
+            if ( stop.get() ) {
+                return;
+            }
+            Search search = workerSearch.get();
+            if ( search.solve(cubes.get(from)) ) {
+                // The winner keeps its model, so this thread starts a new search if it gets another cube.
+                winner.compareAndSet(null, search);
+                workerSearch.remove();
+                stop.set(true);
+            } else if ( search.isOutOfBudget() ) {
+                outOfBudget = true;
+                stop.set(true);
+            } else if ( !search.isStopped() && !search.isAssumptionFailed() ) {
+                // A conflict on level 0 does not depend on the cube, so the other cubes are unsat too.
+                stop.set(true);
+            }
+        }
+    }
+
+    // Every thread's search gets its own copy of it.  The splitter only probes, so it never restarts.
+    void setRestartPolicy(RestartPolicy restartPolicy) {
+        this.restartPolicy = restartPolicy;
+    }
+
+    void setMetrics(SolverMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // Shared by the search of every thread.  The conflicts and propagations are counted per cube.
+    void setBudget(Budget budget) {
+        this.budget = budget;
+    }
+
+    // Whether solve returned false because a cube ran out of budget, rather than because the formula is unsat.
+    boolean isOutOfBudget() {
+        return outOfBudget;
+    }
+
+    Search getWinner() {
+        return winner.get();
+    }
+
+    int getNumberOfCubes() {
+        return cubes.size();
+    }
+
+    long getNumberOfDecisions() {
+        long sum = 0;
+        for (Search search : searches) sum += search.getNumberOfDecisions();
+        return sum;
+    }
+
+    long getNumberOfConflicts() {
+        long sum = 0;
+        for (Search search : searches) sum += search.getNumberOfConflicts();
+        return sum;
+    }
+
+    long getNumberOfRestarts() {
+        long sum = 0;
+        for (Search search : searches) sum += search.getNumberOfRestarts();
+        return sum;
+    }
+
+    long getNumberOfReductions() {
+        long sum = 0;
+        for (Search search : searches) sum += search.getNumberOfReductions();
+        return sum;
+    }
+}
@@ -0,0 +1,429 @@
+package SimpleSAT;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+// Reads a DIMACS CNF file straight into a ClauseArena.
+// The file is memory-mapped and parsed byte by byte with a small state machine, so no tokens or strings are created
+// and the parse state carries over from one mapped window to the next.  Streams and channels, stdin included, are
+// fed through the same state machine one fixed-size buffer at a time, so the input is never held in memory as a
+// whole.  Gzip-compressed input is recognized by its magic number and inflated on the fly.
+// The counts in the "p cnf" header are only hints.  The arena reserves room for the clause count, but never more
+// than the bytes of the input could fill, so a wrong header can't make the loader over-allocate or overflow.
+// Lines starting with c are comments and a % ends the input, as in the SATLIB files.
+//
+// A large file is split at line breaks into chunks that are parsed on separate threads, each into its own arena.
+// The arenas are then appended in file order.  A clause can run over the break between two chunks, so each chunk
+// keeps the literals before its first 0 (its head) and after its last 0 (its tail) apart, and the tail of one chunk
+// and the head of the next are joined into one clause.
+
+class DimacsParser {
+    // Mapped windows are kept well below the 2GB limit of a single mapping.
+    private static final long MAP_WINDOW = 1L << 30;
+    // Files are only split when every thread gets at least this many bytes.
+    private static final long MIN_CHUNK_SIZE = 16L << 20;
+    private static final int STREAM_BUFFER = 1 << 16;
+    // A chunk's arena starts at about one int for every eight bytes, and at most this many, and grows as it fills.
+    // How many ints a byte makes depends on the comments and the width of the literals, so sizing the arena from the
+    // length alone could take more memory than the whole file.  The chunk with the header then reserves
+    // HEADER_CLAUSE_INTS for every clause it announces, up to one int for every three bytes.
+    private static final int MAX_INITIAL_CAPACITY = 1 << 20;
+    private static final int HEADER_CLAUSE_INTS = ClauseArena.HEADER + 3;
+
+    private final int maxThreads;
+
+    private ClauseArena clauses;
+    private int[] variables;
+    private int maxVariable;
+    private boolean hasHeader;
+    private int headerVariables, headerClauses;
+
+    DimacsParser(int maxThreads) {
+        this.maxThreads = Math.max(1, maxThreads);
+    }
+
+    // Parses a file, or stdin if the name is -.
+    void parse(final String fileName) throws IOException {
+        if (fileName.equals("-")) {
+            parse(System.in);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(2);
+            channel.read(magic, 0);
+            if (isGzip(magic)) {
+                parse(Channels.newInputStream(channel));
+                return;
+            }
+
+            long size = channel.size();
+            int threads = (int) Math.max(1, Math.min(maxThreads, size / MIN_CHUNK_SIZE));
+            long[] bounds = chunkBounds(channel, size, threads);
+
+            Chunk[] chunks = new Chunk[bounds.length - 1];
+            for (int k = 0; k < chunks.length; k++) {
+                chunks[k] = new Chunk(k == 0, bounds[k + 1] - bounds[k]);
+            }
+            if (chunks.length == 1) {
+                chunks[0].parse(channel, bounds[0], bounds[1]);
+            } else {
+                parseInParallel(channel, bounds, chunks);
+            }
+            merge(chunks);
+        }
+    }
+
+    void parse(final InputStream input) throws IOException {
+        parse(Channels.newChannel(input));
+    }
+
+    void parse(ReadableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(STREAM_BUFFER);
+        while (buffer.position() < 2 && channel.read(buffer) >= 0);
+        buffer.flip();
+        if (isGzip(buffer)) {
+            // Put back the bytes already read in front of the rest of the stream.
+            byte[] start = new byte[buffer.remaining()];
+            buffer.get(start);
+            InputStream rest = new SequenceInputStream(new ByteArrayInputStream(start), Channels.newInputStream(channel));
+            channel = Channels.newChannel(new GZIPInputStream(rest, STREAM_BUFFER));
+        }
+
+        Chunk chunk = new Chunk(true, STREAM_BUFFER);
+        while (true) {
+            chunk.consume(buffer);
+            if (chunk.ended) {
+                break;
+            }
+            buffer.clear();
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+            buffer.flip();
+        }
+        chunk.finish();
+        merge(new Chunk[] { chunk });
+    }
+
+    private static boolean isGzip(ByteBuffer buffer) {
+        return buffer.limit() >= 2 && (buffer.get(0) & 0xff) == 0x1f && (buffer.get(1) & 0xff) == 0x8b;
+    }
+
+    // Picks threads + 1 offsets splitting the file into chunks of about equal size, each starting on a new line.
+    private static long[] chunkBounds(FileChannel channel, long size, int threads) throws IOException {
+        long[] bounds = new long[threads + 1];
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        int count = 1;
+        for (int k = 1; k < threads; k++) {
+            long position = Math.max(size * k / threads, bounds[count - 1]);
+            boolean found = false;
+            while (!found && position < size) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) == '\n') {
+                        position += i + 1;
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    position += read;
+                }
+            }
+            if (found && position < size && position > bounds[count - 1]) {
+                bounds[count++] = position;
+            }
+        }
+        bounds[count++] = size;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private static void parseInParallel(final FileChannel channel, final long[] bounds, final Chunk[] chunks)
+            throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(chunks.length);
+        try {
+            ArrayList<Future<Void>> results = new ArrayList<>();
+            for (int k = 0; k < chunks.length; k++) {
+                final int chunk = k;
+                results.add(pool.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        chunks[chunk].parse(channel, bounds[chunk], bounds[chunk + 1]);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Appends the chunks in file order into the first chunk's arena and collects the variables in the order they
+    // first appear in the file.
+    private void merge(Chunk[] chunks) {
+        clauses = chunks[0].clauses;
+        IntList pending = chunks[0].current;
+        boolean[] seen = new boolean[1];
+        IntList order = new IntList(16);
+
+        for (int k = 0; k < chunks.length; k++) {
+            Chunk chunk = chunks[k];
+            if (k > 0) {
+                pending.addAll(chunk.head);
+                if (chunk.sawZero) {
+                    clauses.add(pending.items, 0, pending.size, false);
+                    pending = chunk.current;
+                }
+                clauses.append(chunk.clauses);
+            }
+
+            maxVariable = Math.max(maxVariable, chunk.maxVariable);
+            if (seen.length <= maxVariable) {
+                seen = Arrays.copyOf(seen, maxVariable + 1);
+            }
+            for (int i = 0; i < chunk.variables.size; i++) {
+                int variable = chunk.variables.items[i];
+                if (!seen[variable]) {
+                    seen[variable] = true;
+                    order.add(variable);
+                }
+            }
+            if (chunk.hasHeader && !hasHeader) {
+                hasHeader = true;
+                headerVariables = chunk.headerVariables;
+                headerClauses = chunk.headerClauses;
+            }
+            if (chunk.ended) {
+                break;
+            }
+        }
+        // The last clause may be missing its terminating 0.
+        if (pending.size > 0) {
+            clauses.add(pending.items, 0, pending.size, false);
+        }
+        variables = Arrays.copyOf(order.items, order.size);
+    }
+
+    ClauseArena getClauses() {
+        return clauses;
+    }
+
+    // The variables of the formula in the order they first appear.
+    int[] getVariables() {
+        return variables;
+    }
+
+    int getMaxVariable() {
+        return maxVariable;
+    }
+
+    boolean hasHeader() {
+        return hasHeader;
+    }
+
+    int getHeaderVariables() {
+        return headerVariables;
+    }
+
+    int getHeaderClauses() {
+        return headerClauses;
+    }
+
+    // The parse state of one chunk of the file.
+    private static final class Chunk {
+        private static final int TOKENS = 0;
+        private static final int COMMENT = 1;
+        private static final int HEADER = 2;
+
+        private final boolean first;
+        private final long length;
+        private final ClauseArena clauses;
+        // The clause being read.  Once the chunk is done it holds the tail.
+        private IntList current = new IntList(16);
+        private IntList head = new IntList(0);
+        private boolean sawZero;
+        private boolean ended;
+
+        private IntList variables = new IntList(16);
+        private boolean[] seen = new boolean[64];
+        private int maxVariable;
+
+        private int state = TOKENS;
+        private int number;
+        private boolean inNumber, negative;
+        private StringBuilder header = new StringBuilder();
+        private boolean hasHeader;
+        private int headerVariables, headerClauses;
+
+        Chunk(boolean first, long length) {
+            this.first = first;
+            this.length = length;
+            clauses = new ClauseArena((int) Math.min(length / 8, MAX_INITIAL_CAPACITY));
+        }
+
+        void parse(FileChannel channel, long from, long to) throws IOException {
+            for (long position = from; position < to && !ended; position += MAP_WINDOW) {
+                consume(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, to - position)));
+            }
+            finish();
+        }
+
+        private void consume(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (state == COMMENT) {
+                    if (b == '\n') state = TOKENS;
+                } else if (state == HEADER) {
+                    if (b == '\n') {
+                        parseHeader();
+                        state = TOKENS;
+                    } else {
+                        header.append((char) b);
+                    }
+                } else if (b >= '0' && b <= '9') {
+                    if (number > (Integer.MAX_VALUE >> 1) / 10) {
+                        throw new IOException("Variable out of range");
+                    }
+                    number = 10 * number + (b - '0');
+                    inNumber = true;
+                } else if (b == '-' && !inNumber && !negative) {
+                    negative = true;
+                } else {
+                    if (inNumber) {
+                        endNumber();
+                    } else if (negative) {
+                        throw new IOException("Expected a number after -");
+                    }
+                    if (b == 'c') {
+                        state = COMMENT;
+                    } else if (b == 'p') {
+                        state = HEADER;
+                    } else if (b == '%') {
+                        ended = true;
+                        return;
+                    } else if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                        throw new IOException("Unexpected character '" + (char) b + "'");
+                    }
+                }
+            }
+        }
+
+        private void endNumber() {
+            if (number == 0) {
+                endClause();
+            } else {
+                if (number >= seen.length) {
+                    seen = Arrays.copyOf(seen, Math.max(2 * seen.length, number + 1));
+                }
+                if (!seen[number]) {
+                    seen[number] = true;
+                    variables.add(number);
+                    maxVariable = Math.max(maxVariable, number);
+                }
+                current.add(Literal.fromDimacs(negative ? -number : number));
+            }
+            number = 0;
+            inNumber = false;
+            negative = false;
+        }
+
+        // The literals before the first 0 of a chunk other than the first may continue a clause from the chunk
+        // before, so they are set aside as the head instead of being added.
+        private void endClause() {
+            if (!first && !sawZero) {
+                head = current;
+                current = new IntList(16);
+            } else {
+                clauses.add(current.items, 0, current.size, false);
+                current.size = 0;
+            }
+            sawZero = true;
+        }
+
+        private void finish() throws IOException {
+            if (state == HEADER) {
+                parseHeader();
+            } else if (inNumber) {
+                endNumber();
+            }
+            if (!first && !sawZero) {
+                head = current;
+                current = new IntList(0);
+            }
+        }
+
+        // The header line after the p: "cnf <variables> <clauses>".
+        private void parseHeader() throws IOException {
+            String[] fields = header.toString().trim().split("\\s+");
+            if (fields.length != 3 || !fields[0].equals("cnf")) {
+                throw new IOException("Malformed header: p " + header.toString().trim());
+            }
+            try {
+                headerVariables = Integer.parseInt(fields[1]);
+                headerClauses = Integer.parseInt(fields[2]);
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed header: p " + header.toString().trim());
+            }
+            hasHeader = true;
+            header.setLength(0);
+            long estimate = Math.max(0, (long) headerClauses) * HEADER_CLAUSE_INTS;
+            clauses.ensureCapacity((int) Math.min(estimate, length / 3));
+        }
+    }
+
+    // A growable int array.
+    private static final class IntList {
+        private int[] items;
+        private int size;
+
+        IntList(int capacity) {
+            items = new int[Math.max(capacity, 4)];
+        }
+
+        void add(int item) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, 2 * size);
+            }
+            items[size++] = item;
+        }
+
+        void addAll(IntList other) {
+            if (size + other.size > items.length) {
+                items = Arrays.copyOf(items, Math.max(2 * items.length, size + other.size));
+            }
+            System.arraycopy(other.items, 0, items, size, other.size);
+            size += other.size;
+        }
+    }
+}
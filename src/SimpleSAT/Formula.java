@@ -1,660 +1,464 @@
 package SimpleSAT;
 
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigInteger;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
 import java.util.*;
-import java.io.BufferedInputStream;
-import java.io.FileInputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import static java.lang.Integer.MAX_VALUE;
 import static java.lang.Math.abs;
 
 public class Formula {
 
-    private ArrayList<Literal> literalList;
-    private ArrayList<Clause> clauseList;
-    private ArrayList<Literal> formulaSolution;
-    private ArrayList<Integer> conflictLiterals;
-    private ArrayList<Integer> backtrackLiterals;
+    // All clauses of the formula, in the encoding described in Literal.
+    private ClauseArena clauses;
+    // literalList contains all the unique variables in the formula, most frequent first.
+    private int[] literalList;
+    private int[] literalAppearances;
+    // The value of each variable in the solution, indexed by variable.
+    private boolean[] formulaSolution;
 
-    private int numVariables, numClauses;
+    private int numVariables, numClauses, maxVariable;
     private long numberOfDecisions;
     private long numberOfConflicts;
+    private long numberOfRestarts;
+    private long numberOfReductions;
+    private long numberOfPropagations;
+    private RestartPolicy restartPolicy;
+    // Kept after preprocessing to extend the model to the variables it eliminated.
+    private Preprocessor preprocessor;
+    // With more than one thread the search runs as a portfolio of that many workers.  Brute force splits its
+    // assignments between them.
+    private int threads = 1;
+    // Splits the formula into cubes solved on that many threads instead.
+    private boolean cubeAndConquer;
+    // Seconds between progress lines, or 0 for none.
+    private double progressSeconds;
+    // Where to write a DRAT proof of the answer, or null for none.
+    private Path proofFile;
+    // The limits of every solve, see Budget.  interrupted stops the solve running, or the next one if none is, and
+    // is cleared once that solve has returned.
+    private long conflictLimit = Budget.UNLIMITED;
+    private long propagationLimit = Budget.UNLIMITED;
+    private long memoryLimit = Budget.UNLIMITED;
+    private long timeLimit = Budget.UNLIMITED;
+    private final AtomicBoolean interrupted = new AtomicBoolean();
+
+    // The search behind the incremental API.  It is kept between calls, along with everything it has learned.
+    private Search incremental;
+    private int[] failedAssumptions = new int[0];
 
     private boolean isFormulaSAT = false;
     private boolean DEBUG = false;
 
-    Formula(final String fileName) {
-        importCNF(fileName);
-        formulaSolution = new ArrayList<>(numVariables);
-        conflictLiterals = new ArrayList<>(0);
-        backtrackLiterals = new ArrayList<>(0);
-        numberOfDecisions = 0;
-        numberOfConflicts = 0;
+    // Reads the formula from a DIMACS file, or from stdin if fileName is -.  Gzip-compressed input is inflated on
+    // the fly.  Throws NoSuchFileException if the file does not exist and IOException if it can't be read or is not
+    // a valid CNF file.
+    public Formula(final String fileName) throws IOException {
+        Object event = SolverEvents.RECORDER.beginParse();
+        DimacsParser parser = newParser();
+        parser.parse(fileName);
+        importCNF(parser);
+        recordParse(event, fileName);
     }
 
-    /**
-     * Import cnf file and store clauses in
-     * clauseList.
-     *
-     * @param fileName the file name
-     */
-    private void importCNF(final String fileName) {
-        Scanner sc = null;
-        try {
-            sc = new Scanner(new BufferedInputStream(new FileInputStream(fileName)), "UTF-8");
-        } catch (FileNotFoundException e) {
-            System.out.println("Could not find file " + fileName + ". Try using the full path.");
-            System.exit(1);
+    // Reads the formula from a stream or channel as it arrives, so it can come from a pipe without a temp file.
+    public Formula(final InputStream input) throws IOException {
+        Object event = SolverEvents.RECORDER.beginParse();
+        DimacsParser parser = newParser();
+        parser.parse(input);
+        importCNF(parser);
+        recordParse(event, "stream");
+    }
+
+    public Formula(final ReadableByteChannel input) throws IOException {
+        Object event = SolverEvents.RECORDER.beginParse();
+        DimacsParser parser = newParser();
+        parser.parse(input);
+        importCNF(parser);
+        recordParse(event, "channel");
+    }
+
+    private void recordParse(Object event, String source) {
+        if (event != null) {
+            SolverEvents.RECORDER.commitParse(event, source, maxVariable, clauses.getNumberOfClauses());
         }
+    }
 
-        // Not a valid CNF file.
-        if(sc.findWithinHorizon("p cnf", 0) == null)
-            System.exit(2);
+    // An empty formula, to be built with addClause.
+    public Formula() {
+        clauses = new ClauseArena(16);
+        literalList = new int[0];
+        literalAppearances = new int[1];
+        formulaSolution = new boolean[1];
+    }
 
-        // Reading the line: p cnf numVariables numClauses
-        numVariables = sc.nextInt();
-        numClauses = sc.nextInt();
+    private static DimacsParser newParser() {
+        return new DimacsParser(Runtime.getRuntime().availableProcessors());
+    }
 
-        System.out.println("Number of variables: " + numVariables + " Number of clauses: " + numClauses);
+    /**
+     * Store the clauses read by the parser in
+     * the clause arena.
+     *
+     * @param parser the parser that read the cnf file
+     */
+    private void importCNF(final DimacsParser parser) throws IOException {
+        // Not a valid CNF file.
+        if (!parser.hasHeader())
+            throw new IOException("No p cnf header found");
 
-        // This is the main array of clauses that keeps track of all clauses in the function.
-        clauseList = new ArrayList<>(numClauses);
-        // literalList contains a list of all the unique literals in the formulas.
-        literalList = new ArrayList<>(numVariables);
-
-        // Read in all clauses into a Clause object array
-        int start = 0;
-        int clause = 0;
-        int end = 0;
-        Literal literalCompare = new Literal(0);
-        // Allocate the maximum amount of memory that could possibly be needed.
-        int[] intBuffer = new int[numVariables*numClauses];
-        if ( DEBUG ) System.out.println("Clauses:");
-        for(int i = 0; sc.hasNextInt(); i++) {
-            intBuffer[i] = sc.nextInt();
-
-            // Check the list of literals to see if we have already added this one.
-            // 0 is ignored since that is the clause terminator
-            literalCompare.set(abs(intBuffer[i]));
-            if (!literalList.contains(literalCompare) && literalCompare.getLiteral() != 0) {
-                literalList.add(new Literal(abs(intBuffer[i])));
-            }
+        // The header counts are only what the file claims.  The formula is sized from what was actually read.
+        numVariables = parser.getHeaderVariables();
+        numClauses = parser.getHeaderClauses();
 
-            // Add the clause to the list if intBuffer is at the end of a line.
-            if(intBuffer[i] == 0){
-                clauseList.add(new Clause(Arrays.copyOfRange(intBuffer, start, end)));
-                if ( DEBUG ) System.out.println(clauseList.get(clause));
-                start = i + 1;
-                end = start;
-                clause++;
-            } else {
-                end++;
-            }
-        }
+        // This is the main store of clauses that keeps track of all clauses in the function.
+        clauses = parser.getClauses();
+        maxVariable = parser.getMaxVariable();
 
         // Sort the master list of literals such that the most frequent ones will be selected on first.
+        literalList = parser.getVariables();
         sortLiteralList();
-        System.out.println("Literals: " + literalList);
-
-        sc.close();
-    }
-
-    void solve() {
-        ArrayList<Literal> assignedLiterals = new ArrayList<>(1);
-
-        if ( expandClauseList() == -1 ) {
-            System.out.println("RESULT: UNSAT");
-            System.out.println("Decisions: " + numberOfDecisions);
-            System.out.println("Conflicts: " + numberOfConflicts);
-            return;
-        }
 
+        formulaSolution = new boolean[maxVariable + 1];
         numberOfDecisions = 0;
         numberOfConflicts = 0;
-        DPLL( clauseList, assignedLiterals, literalList );
-
-        if (!isFormulaSAT) {
-            System.out.println("RESULT: UNSAT");
-            System.out.println("Decisions: " + numberOfDecisions);
-            System.out.println("Conflicts: " + numberOfConflicts);
-        }
-        else {
-            printFormulaSolution();
-        }
     }
 
-    private int DPLL (ArrayList<Clause> dpllClauseList, ArrayList<Literal> assignedLiterals, ArrayList<Literal> allLiterals) {
-        int nextLiteral;
-        Literal leftLiteral;
-        Literal rightLiteral;
-        // Each branch carries its own set of assigned literals
-        ArrayList<Literal> leftLiteralBranch = new ArrayList<>();
-        ArrayList<Literal> rightLiteralBranch = new ArrayList<>();
-
-        // Before entering each recursion, we need to reset the state of the clause array, since all DPLL calls
-        // use the same clauseList;
-        resetClauseListState( dpllClauseList );
-
-        // Go through the list of clauses and assign values to them.
-        assignLiteralListToClauseList( dpllClauseList, assignedLiterals );
-
-        // Exit all recursions if the isFormulaSAT flag is set to true.  This is set when the whole dynamicClauseArray
-        // is determined to be satisfied.
-        if (isFormulaSAT) {
-            return 0;
-        }
-
-        int backtrackLiteral = updateUnitClauses( dpllClauseList, assignedLiterals );
-        if ( backtrackLiteral > 0 || backtrackLiteral == -2 ) {
-            return backtrackLiteral;
-        }
-
-        // Copy the Literal data structures to new structures to pass to the next iteration of DPLL.
-        copyDataStructures(assignedLiterals, leftLiteralBranch, rightLiteralBranch);
-
-        // Pick a new literal to branch on.  Returns -1 if no literals are left.
-        nextLiteral = pickLiteral( assignedLiterals, allLiterals );
-
-        // Keep track of how many decisions we make in the algorithm.  This is a decent metric of algorithm efficiency.
-        numberOfDecisions++;
-
-        // Check to see if the formula is SAT based on the current clause list.
-        // Print solution and return if solution is found.
-        if (isFormulaSAT( dpllClauseList )) {
-            isFormulaSAT = true;
-            if ( allLiterals.size() == literalList.size() ) {
-                recordFormulaSolution(assignedLiterals);
+    // Prints what was loaded.  Loading itself prints nothing, so batch mode can load many formulas quietly.
+    void printSummary() {
+        System.out.println("Number of variables: " + numVariables + " Number of clauses: " + numClauses);
+        if ( DEBUG ) {
+            System.out.println("Clauses:");
+            for (int clause = clauses.first(); clause < clauses.end(); clause = clauses.next(clause)) {
+                System.out.println(clauses.toString(clause));
             }
-            return 0;
         }
+        System.out.println("Literals: " + Arrays.toString(literalList));
+    }
 
-        // Return false if we've assigned all literals and the formula is not SAT
-        if (nextLiteral == -1) {
-            return 0;
-        } else {
-            // If nextLiteral is not -1, then a literal has been picked.  Process it.
-            // Set up the parameters for the left branch with the new literal and a false value.
-            boolean nextValue = false;
-
-            leftLiteral = new Literal( nextLiteral, nextValue );
-            leftLiteralBranch.add( leftLiteral );
-
-            // Make the recursive calls
-            if ( DEBUG ) System.out.println("Left on " + nextLiteral);
-            int leftBranch = DPLL( dpllClauseList, leftLiteralBranch, allLiterals );
+    // The incremental API.  Clauses can be added and the formula solved under assumptions as often as needed, and
+    // each solve goes on from what the previous ones learned.  Literals are in the ±x form of a CNF file.  The formula
+    // is not preprocessed, since a variable eliminated now could show up again in a later clause or assumption.
+    // Use either this or solveAndPrint on a formula, not both.
 
-            if ( leftBranch > 0 && leftBranch != nextLiteral ) {
-                return leftBranch;
+    public void addClause(int... literals) {
+        int[] encoded = encode(literals);
+        if ( incremental != null ) {
+            incremental.addClause( encoded, encoded.length );
+        } else {
+            clauses.add( encoded, 0, encoded.length, false );
+        }
+        for ( int literal : encoded ) {
+            int variable = Literal.variable( literal );
+            if ( literalAppearances[variable]++ == 0 ) {
+                literalList = Arrays.copyOf( literalList, literalList.length + 1 );
+                literalList[literalList.length - 1] = variable;
             }
-
-            //System.out.println("Right on " + nextLiteral );
-            // Set up the parameters for the right branch with the new literal and a true value.
-            if ( DEBUG ) System.out.println("Right on " + nextLiteral );
-            rightLiteral = new Literal( nextLiteral, !nextValue );
-            rightLiteral.setRightBranch();
-            rightLiteralBranch.add( rightLiteral );
-            int rightBranch = DPLL( dpllClauseList, rightLiteralBranch, allLiterals );
-
-
         }
-        return 0;
+        numClauses++;
     }
 
-    // The workhorse method of DPLL.  It takes an ArrayList of Literals that has currently been assigned and searches
-    // through the clauseList for unit clauses.  It compiles a List of forced values and searches through those for
-    // two things:
-    // 1. A forced value
-    // 2. A conflict
-    // If forced values are found, they are assigned to the clause and the search starts again.
-    // If a conflict is found, -1 is returned.
-    private int updateUnitClauses(ArrayList<Clause> dpllClauseList, ArrayList<Literal> currentAssignedLiterals) {
-        int forcedVariable;
-        int numberForced = 1;
-        boolean forcedValue;
-        Literal forcedLiteral = new Literal(0);
-        Literal oppositeLiteral;
-        ArrayList<Literal> forcedLiterals = new ArrayList<>(0);
-        // removedLiterals keeps track of Literals that have already been forced.  It speeds up the algorithm in the
-        // case of multiples of the same forced literal
-        ArrayList<Literal> removedLiterals = new ArrayList<>(0);
-
-        while (numberForced != 0) {
-            forcedLiteral.setLiteral(0);
-            forcedLiterals.clear();
-            removedLiterals.clear();
-            numberForced = 0;
-            for (Clause clause : dpllClauseList) {
-                // findImplications() returns the unassigned literal in unit clauses, or 0 otherwise.
-                forcedVariable = clause.findImplications();
-                if (forcedVariable != 0) {
-                    // Unit clause found, assign it a value based on the literal sign
-                    if (forcedVariable > 0) {
-                        forcedValue = true;
-                    } else {
-                        forcedValue = false;
-                    }
-
-                    forcedLiteral = new Literal( Math.abs(forcedVariable), forcedValue );
-                    forcedLiteral.setForced();
-                    oppositeLiteral = new Literal( forcedLiteral );
-                    oppositeLiteral.complement();
-                    // Add the new Literal to the forcedLiterals list.
-                    forcedLiterals.add(new Literal( forcedLiteral ));
-
-                    // Conflict found.  Exit here to save quite a lot of time on assigning literals.
-                    if ( forcedLiterals.contains(oppositeLiteral) ) {
-                        numberOfConflicts++;
-                        //System.out.println("Conflict");
-                        if (dpllClauseList.size() < ( numClauses * 1.5 )) {
-                            if (conflictLiterals.contains( forcedLiteral.getLiteral() )) {
-                                return -2;
-                            }
-                            // Based on the literal being forced (the conflict literal), generate a conflict clause.
-                            int x = addConflictClause(dpllClauseList, currentAssignedLiterals, forcedLiteral);
-                            conflictLiterals.add( forcedLiteral.getLiteral() );
-                            if (backtrackLiterals.contains( x )) {
-                                break;
-                            }
-
-                            backtrackLiterals.add( x );
-
-                            if ( x > 0 || x == -2 ) return x;
-                            else break;
-                        }
-                        // Returning a -2 indicated that DPLL should abort the current branch that it is on, but the
-                        // maximum number of conflict clauses has been reached.
-                        return -2;
-                    }
-                }
-            }
+    // Returns SAT if the formula has a model with every assumption true, which model() then returns.  Otherwise
+    // failedAssumptions() returns the assumptions that can't all hold.  Returns UNKNOWN if the solve ran out of
+    // budget or was interrupted.
+    public Status solve(int... assumptions) {
+        int[] encoded = encode(assumptions);
+        if ( incremental == null ) {
+            incremental = new Search( clauses, maxVariable, literalList );
+            if ( restartPolicy != null ) incremental.setRestartPolicy( restartPolicy );
+        }
+        incremental.ensureVariables( maxVariable );
 
-            // Apply all found forced literals to the formula.
-            for ( Literal literal : forcedLiterals ) {
-                if (literal.getLiteral() != 0 && !removedLiterals.contains(literal)) {
-                    literal.setForced();
-                    if ( DEBUG ) System.out.println("Value of " + literal + " forced.");
-                    assignLiteralToClauses(dpllClauseList, literal);
-                    currentAssignedLiterals.add(new Literal(literal));
-                    removedLiterals.add(literal);
-                    numberForced++;
-                }
+        incremental.setBudget( newBudget() );
+        try {
+            isFormulaSAT = incremental.solve( encoded );
+        } finally {
+            interrupted.set( false );
+        }
+        numberOfDecisions = incremental.getNumberOfDecisions();
+        numberOfConflicts = incremental.getNumberOfConflicts();
+        numberOfPropagations = incremental.getNumberOfPropagations();
+        if ( incremental.isStopped() ) {
+            failedAssumptions = new int[0];
+            return Status.UNKNOWN;
+        }
+        if ( isFormulaSAT ) {
+            for ( int variable = 1; variable <= maxVariable; variable++ ) {
+                formulaSolution[variable] = incremental.getValue( variable );
             }
+            failedAssumptions = new int[0];
+            return Status.SAT;
         }
-        return 0;
+        failedAssumptions = incremental.getFailedAssumptions().clone();
+        for ( int i = 0; i < failedAssumptions.length; i++ ) {
+            failedAssumptions[i] = Literal.toDimacs( failedAssumptions[i] );
+        }
+        return Status.UNSAT;
     }
 
-    // addConflictClause attempts to calculate a clause to add to the clauseList to earlier find conflicts and
-    // terminate unsat branches sooner.
-    private int addConflictClause(ArrayList<Clause> dpllClauseList, ArrayList<Literal> assignedLiterals, Literal conflictLiteral ) {
-        Literal tempLiteral;
-        Literal compTempLiteral;
-        int conflictLiteralNumber;
-        int backtrackLiteral = MAX_VALUE;
-        ArrayList<Integer> conflictClauseBuilder;
-        ArrayList<Integer> conflictIntegerLiteralList = new ArrayList<>();
-        ArrayList<Literal> conflictLiteralList = new ArrayList<>();
-        Clause conflictClause;
-
-        // literalNumber stores the literal in the ±x form that is stored in a Clause.
-        conflictLiteralNumber = conflictLiteral.getLiteral();
-        // This loop builds up a list of literals that are in the same clauses as the conflict literal.
-        for ( Clause clause : dpllClauseList ) {
-            if ( clause.isConflictClause() ) continue;
-            // Check each clause in dpllClauseList to see if it contains the conflictLiteral
-            if ( Math.abs( clause.findImplications()) == conflictLiteralNumber ) {
-                //if ( clause.containsLiteral( literalNumber )) {
-                conflictClauseBuilder = clause.getVariables();
-                for ( int lit : conflictClauseBuilder ) {
-                    if (Math.abs(lit) != conflictLiteral.getLiteral()) {
-                        tempLiteral = new Literal(Math.abs(lit));
-                        if (lit < 0) {
-                            tempLiteral.complement();
-                        }
-                        compTempLiteral = new Literal(Math.abs(lit));
-                        compTempLiteral.setValue(!tempLiteral.getValue());
-
-                        // This if statement checks to see if the literal or its complement are in the conflict literal list and in the assigned literals.
-                        // It's a little bit long winded because the .contains() method needs the .equals() methods to be overridden
-                        // but it's already been overridden for another part of the algorithm.  Changing it again would affect several other areas,
-                        // so it's left as this big if statement for now.
-                        // This is where backtrack literal finds the earliest literal that it can backtrack to.
-                        if (!conflictLiteralList.contains( tempLiteral )) {
-                            if (assignedLiterals.contains( tempLiteral )) {
-                                conflictLiteralList.add( tempLiteral );
-                                conflictIntegerLiteralList.add( lit );
-                                if (assignedLiterals.indexOf( tempLiteral ) < backtrackLiteral ) {
-                                    if ( !assignedLiterals.get(assignedLiterals.indexOf( tempLiteral )).isForced()) {
-                                        if ( !assignedLiterals.get(assignedLiterals.indexOf( tempLiteral )).isRightBranch() ) {
-                                            backtrackLiteral = assignedLiterals.indexOf( tempLiteral );
-                                        }
-                                    }
-                                }
-                            } else if (assignedLiterals.contains( compTempLiteral )) {
-                                conflictLiteralList.add( tempLiteral );
-                                conflictIntegerLiteralList.add( lit );
-                                if (assignedLiterals.indexOf( compTempLiteral ) < backtrackLiteral ) {
-                                    if (!assignedLiterals.get(assignedLiterals.indexOf( compTempLiteral )).isForced() ) {
-                                        if (!assignedLiterals.get(assignedLiterals.indexOf( compTempLiteral )).isRightBranch() ) {
-                                            backtrackLiteral = assignedLiterals.indexOf( compTempLiteral );
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-
+    // The model of the last solve that returned SAT, as one literal per variable.
+    public int[] model() {
+        if ( !isFormulaSAT ) {
+            throw new IllegalStateException("The last solve did not return SAT");
         }
-
-
-        // It is possible for ALL of the literals in a conflict clause to be forced literals, in which case the only place
-        // to backtrack to is the last decision point.  Returning -2 here does just that (it goes up two levels to DPLL)
-        if ( backtrackLiteral > assignedLiterals.size() ) {
-            return -2;
-        } else {
-            // Otherwise, get the integer value of the index stored earlier.
-            backtrackLiteral = assignedLiterals.get( backtrackLiteral ).getLiteral();
+        int[] model = new int[maxVariable];
+        for ( int variable = 1; variable <= maxVariable; variable++ ) {
+            model[variable - 1] = formulaSolution[variable] ? variable : -variable;
         }
+        return model;
+    }
 
-        // Convert the Integer List to an array, the format the Clause object takes.
-        conflictClause = new Clause( IntegerListToIntArray( conflictIntegerLiteralList ));
-        conflictClause.setConflictClause();
+    public int[] failedAssumptions() {
+        return failedAssumptions.clone();
+    }
 
-        // These statements just limit the size of the conflict clause we add.
-        if ( conflictClause.getSize() < 3 ) {
-            return -2;
-        }
-        if ( conflictClause.getSize() > 9 ) {
-            return -2;
-        }
+    // Makes the solve running in another thread, or the next one to start, give up with UNKNOWN.  It stops at its
+    // next conflict or decision.  Preprocessing, brute force and the Gray code walk are not interrupted.
+    public void interrupt() {
+        interrupted.set( true );
+    }
 
-        if ( !dpllClauseList.contains( conflictClause ) ) {
-            if ( DEBUG ) {
-                System.out.println(conflictClause);
-                System.out.println("Backtrack to: " + backtrackLiteral);
-            }
-            dpllClauseList.add( conflictClause );
-            return backtrackLiteral;
-        }
-        else {
-            return -2;
-        }
+    // Limits for every solve from now on.  A solve that reaches one returns UNKNOWN, and a limit of 0 removes it.
+    // Conflicts and propagations are counted by each search from the start of its own solve: with threads every
+    // worker gets the whole limit, and with cubes every cube does, so they don't bound the total work of those
+    // modes.  The time limit and interrupt do.  The memory limit is on the bytes of the clause array of each search,
+    // where the learned clauses grow, and so is per worker or cube as well.
+    public void setConflictLimit( long conflicts ) {
+        conflictLimit = conflicts > 0 ? conflicts : Budget.UNLIMITED;
     }
 
-    // This method must be called before each iteration through the DPLL function, since the algorithm uses the
-    // same clause list for all iterations.
-    private void resetClauseListState ( ArrayList<Clause> dpllClauseList ) {
-        for (Clause clause : dpllClauseList) {
-            clause.resetClause();
-        }
+    public void setPropagationLimit( long propagations ) {
+        propagationLimit = propagations > 0 ? propagations : Budget.UNLIMITED;
     }
 
-    // Takes an ArrayList of Literals that have been assigned and makes them official with the clauseList.
-    private void assignLiteralListToClauseList(ArrayList<Clause> dpllClauseList, ArrayList<Literal> currentLiterals) {
-        for (Literal literal : currentLiterals) {
-            for (Clause clause : dpllClauseList) {
-                clause.assign(literal);
-            }
-        }
+    public void setMemoryLimit( long bytes ) {
+        memoryLimit = bytes > 0 ? bytes : Budget.UNLIMITED;
     }
 
-    // This function simply converts an Integer List to an int[]
-    private int[] IntegerListToIntArray(ArrayList<Integer> list)  {
-        int[] ret = new int[list.size()];
-        int i = 0;
-        for (Integer e : list)
-            ret[i++] = e;
-        return ret;
-    }
-
-    // This method has two functions.  It first looks for clauses that contain all the same literals and adds them
-    // to a sub-list of clauses to run DPLL on.  If the result is unsat, the whole formula is unsat.
-    // The second function is to reduce the clause list.  Clauses in the form (x + y + z)(x + y + z') will be
-    // expanded to (x + y)
-    private int expandClauseList() {
-        ArrayList<Clause> newClauses = new ArrayList<>();
-        ArrayList<Clause> clausesToRemove = new ArrayList<>();
-        ArrayList<Clause> previousSublist = new ArrayList<>();
-
-        // These two loops compare every clause to every other clause.
-        for ( Clause clause1 : clauseList ) {
-            ArrayList<Clause> dpllClauseSublist = new ArrayList<>();
-            for ( Clause clause2 : clauseList ) {
-                // checkContradiction looks for two clauses that are different by a single variable.  It returns
-                // a contradiction clause that contains only the variables in common.
-                int[] newClause = checkContradiction( clause1, clause2 );
-
-                if ( newClause != null) {
-                    if ( newClause[0] != 0 ) {
-                        // Add to a list of clauses we need to remove.
-                        if (!clausesToRemove.contains(clause1)) {
-                            clausesToRemove.add( clause1 );
-                        }
-                        if (!clausesToRemove.contains(clause2)) {
-                            clausesToRemove.add( clause2 );
-                        }
-                        Clause clauseToAdd = new Clause( newClause );
-                        // Add to a list of clauses to add.
-                        if (!newClauses.contains(clauseToAdd)) {
-                            newClauses.add(new Clause( newClause ));
-                        }
-                    }
-
-                    if (clauseMatchedLiterals(clause1, clause2) == clause1.getSize()) {
-                        dpllClauseSublist.add( clause2 );
-                    }
-
-                }
-            }
-            if ( dpllClauseSublist.size() > 3 ) {
-                ArrayList<Literal> assignedLiterals = new ArrayList<>(1);
-                ArrayList<Literal> dpllLiteralList = clause1.getLiterals();
-
-                DPLL(dpllClauseSublist, assignedLiterals, dpllLiteralList);
-                if (!isFormulaSAT) {
-                    return -1;
-                } else {
-                    isFormulaSAT = false;
-                }
-            }
-        }
+    public void setTimeLimit( long milliseconds ) {
+        timeLimit = milliseconds > 0 ? TimeUnit.MILLISECONDS.toNanos( milliseconds ) : Budget.UNLIMITED;
+    }
 
-        Iterator<Clause> iterator;
+    // The time limit starts here.
+    private Budget newBudget() {
+        return new Budget( conflictLimit, propagationLimit, memoryLimit, timeLimit, interrupted );
+    }
 
-        // Remove clauses from clauseList
-        for (Clause clauseToRemove : clausesToRemove ) {
-            iterator = clauseList.iterator();
-            while ( iterator.hasNext() ) {
-                if (iterator.next() == clauseToRemove) {
-                    iterator.remove();
-                }
+    // Converts literals to the encoding in Literal, making room for any new variable.
+    private int[] encode(int[] literals) {
+        int[] encoded = new int[literals.length];
+        int maximum = maxVariable;
+        for ( int i = 0; i < literals.length; i++ ) {
+            if ( literals[i] == 0 ) {
+                throw new IllegalArgumentException("0 is not a literal");
             }
+            encoded[i] = Literal.fromDimacs( literals[i] );
+            maximum = Math.max( maximum, abs( literals[i] ) );
         }
-
-        // Add new clauses to clauseList
-        for (Clause clauseToAdd : newClauses ) {
-            clauseList.add( new Clause( clauseToAdd ));
+        if ( maximum > maxVariable ) {
+            maxVariable = maximum;
+            formulaSolution = Arrays.copyOf( formulaSolution, maxVariable + 1 );
+            literalAppearances = Arrays.copyOf( literalAppearances, maxVariable + 1 );
+            numVariables = Math.max( numVariables, maxVariable );
         }
-
-        numClauses = clauseList.size();
-
-        return 0;
+        return encoded;
     }
 
-    // Checks for two clauses to be equivalent, but with one complemented variable.
-    private int[] checkContradiction( Clause clause1, Clause clause2 ) {
-        ArrayList<Integer> literalMatchCounts;
-
-        literalMatchCounts = clauseMatchedLiteralCount( clause1, clause2 );
-
-        if ( literalMatchCounts != null ) {
-            int listSize = clause1.getSize();
-            int literalExactMatches = literalMatchCounts.get(1);
-            int literalComplementMatches = literalMatchCounts.get(2);
-            int complementLiteral = literalMatchCounts.get(3);
-            ArrayList<Integer> literalList1 = clause1.getVariables();
-
-            if (literalComplementMatches == 1 && literalExactMatches == (listSize - 1)) {
-                ArrayList<Integer> newClause = new ArrayList<>(0);
-                for (Integer i : literalList1) {
-                    if (Math.abs(i) != Math.abs(complementLiteral)) {
-                        newClause.add(i);
-                    }
-                }
-
-                return IntegerListToIntArray(newClause);
-            }
+    // Solves and prints the result.  The live counters of the search are published over JMX while it runs, and
+    // printed every progressSeconds if that is set.  If a proof file is set, the proof is written to it as the search
+    // goes; throws if that fails.
+    void solveAndPrint() throws IOException {
+        SolverMetrics metrics = new SolverMetrics();
+        metrics.register();
+        ProgressReporter progress = progressSeconds > 0 ? ProgressReporter.start( metrics, progressSeconds ) : null;
+        ProofWriter proof = proofFile != null ? new ProofWriter( proofFile ) : null;
+        try {
+            solveAndPrint( metrics, proof, newBudget() );
+        } finally {
+            interrupted.set( false );
+            if ( progress != null ) progress.stop();
+            metrics.unregister();
+            if ( proof != null ) proof.close();
         }
-        else return null;
-
-        int[] nothingSpecial = new int[]{0};
-        return nothingSpecial;
     }
 
-    // Counts the number of literals two clauses have in common, regardless of their sign.
-    private ArrayList<Integer> clauseMatchedLiteralCount( Clause clause1, Clause clause2 ) {
-        if (clause1.getSize() != clause2.getSize()) {
-            return null;
+    private void solveAndPrint( SolverMetrics metrics, ProofWriter proof, Budget budget ) {
+        boolean satisfiable = preprocess( proof );
+        numClauses = clauses.getNumberOfClauses();
+        if ( DEBUG ) System.out.println("Subsumed: " + preprocessor.getNumberOfSubsumed()
+                + " Strengthened: " + preprocessor.getNumberOfStrengthened()
+                + " Eliminated: " + preprocessor.getNumberOfEliminated());
+        if ( !satisfiable ) {
+            System.out.println("RESULT: UNSAT");
+            System.out.println("Decisions: " + numberOfDecisions);
+            System.out.println("Conflicts: " + numberOfConflicts);
+            return;
         }
 
-        ArrayList<Integer> returnCounts = new ArrayList<>(4);
-
-        int listSize = clause1.getSize();
-
-        int matchTracker = 0;
-        int perfectMatchTracker = 0;
-        int complementTracker = 0;
-        int complementLiteral = 0;
-
-        ArrayList<Integer> literalList1 = clause1.getVariables();
-        ArrayList<Integer> literalList2 = clause2.getVariables();
-
-        int x;
-        int y;
-        for ( int i = 0; i < listSize; i++ ) {
-            x = literalList1.get(i);
-            y = literalList2.get(i);
-            if ( Math.abs( x) == Math.abs( y )) {
-                matchTracker++;
-            }
-            if ( x == y ) {
-                perfectMatchTracker++;
-            }
-            if ( x == -1*y ) {
-                complementTracker++;
-                complementLiteral = x;
-            }
+        Search search;
+        boolean unknown;
+        if ( cubeAndConquer ) {
+            CubeAndConquer conquer = new CubeAndConquer( clauses, maxVariable, remainingVariables(), threads );
+            conquer.setMetrics( metrics );
+            conquer.setBudget( budget );
+            if ( restartPolicy != null ) conquer.setRestartPolicy( restartPolicy );
+            isFormulaSAT = conquer.solve();
+            // A cube may run out of budget while another finds a model.
+            unknown = conquer.getWinner() == null && conquer.isOutOfBudget();
+            search = conquer.getWinner();
+            System.out.println("Cubes: " + conquer.getNumberOfCubes());
+            numberOfDecisions = conquer.getNumberOfDecisions();
+            numberOfConflicts = conquer.getNumberOfConflicts();
+            numberOfRestarts = conquer.getNumberOfRestarts();
+            numberOfReductions = conquer.getNumberOfReductions();
+        }
+        else if ( threads > 1 ) {
+            Portfolio portfolio = new Portfolio( clauses, maxVariable, remainingVariables(), threads );
+            if ( restartPolicy != null ) portfolio.setRestartPolicy( restartPolicy );
+            portfolio.setMetrics( metrics );
+            portfolio.setBudget( budget );
+            isFormulaSAT = portfolio.solve();
+            search = portfolio.getWinner();
+            unknown = search.isStopped();
+            if ( !unknown ) System.out.println("Answered by worker " + portfolio.getWinningWorker());
+            recordStatistics( search );
+        }
+        else {
+            search = new Search( clauses, maxVariable, remainingVariables() );
+            if ( DEBUG ) search.setDEBUG();
+            if ( restartPolicy != null ) search.setRestartPolicy( restartPolicy );
+            search.setMetrics( metrics.newSlot() );
+            search.setProof( proof );
+            search.setBudget( budget );
+            isFormulaSAT = search.solve();
+            unknown = search.isStopped();
+            recordStatistics( search );
+        }
+
+        if ( unknown ) {
+            System.out.println("RESULT: UNKNOWN");
+            System.out.println("Decisions: " + numberOfDecisions);
+            System.out.println("Conflicts: " + numberOfConflicts);
+            System.out.println("Restarts: " + numberOfRestarts);
+            System.out.println("Reductions: " + numberOfReductions);
+        }
+        else if (!isFormulaSAT) {
+            System.out.println("RESULT: UNSAT");
+            System.out.println("Decisions: " + numberOfDecisions);
+            System.out.println("Conflicts: " + numberOfConflicts);
+            System.out.println("Restarts: " + numberOfRestarts);
+            System.out.println("Reductions: " + numberOfReductions);
+        }
+        else {
+            recordFormulaSolution( search );
+            printFormulaSolution();
         }
+    }
 
-        returnCounts.add( matchTracker );
-        returnCounts.add( perfectMatchTracker );
-        returnCounts.add( complementTracker );
-        returnCounts.add( complementLiteral );
+    private void recordStatistics( Search search ) {
+        numberOfDecisions = search.getNumberOfDecisions();
+        numberOfConflicts = search.getNumberOfConflicts();
+        numberOfRestarts = search.getNumberOfRestarts();
+        numberOfReductions = search.getNumberOfReductions();
+        numberOfPropagations = search.getNumberOfPropagations();
+    }
 
-        return returnCounts;
+    // Runs the preprocessor on the clauses.  Returns false if it found the formula unsat.
+    private boolean preprocess( ProofWriter proof ) {
+        Object event = SolverEvents.RECORDER.beginPreprocess();
+        preprocessor = new Preprocessor( clauses, maxVariable );
+        preprocessor.setProof( proof );
+        boolean satisfiable = preprocessor.simplify();
+        if ( event != null ) {
+            SolverEvents.RECORDER.commitPreprocess( event, preprocessor.getNumberOfSubsumed(),
+                    preprocessor.getNumberOfStrengthened(), preprocessor.getNumberOfEliminated(),
+                    clauses.getNumberOfClauses() );
+        }
+        return satisfiable;
     }
 
-    // Counts the number of literals two clauses have in common, regardless of their sign.
-    private int clauseMatchedLiterals( Clause clause1, Clause clause2 ) {
-        if (clause1.getSize() != clause2.getSize()) {
-            return -1;
+    // Solves without printing anything, for batch mode.  The search gives up with UNKNOWN once stop is set or the
+    // budget runs out.  Preprocessing is not interrupted.
+    Status solveUntil( AtomicBoolean stop ) {
+        Budget budget = newBudget();
+        if ( !preprocess( null ) ) {
+            return Status.UNSAT;
+        }
+        Search search = new Search( clauses, maxVariable, remainingVariables() );
+        if ( restartPolicy != null ) search.setRestartPolicy( restartPolicy );
+        search.setStopFlag( stop );
+        search.setBudget( budget );
+        try {
+            isFormulaSAT = search.solve();
+        } finally {
+            interrupted.set( false );
         }
-
-        int listSize = clause1.getSize();
-
-        int matchTracker = 0;
-
-        ArrayList<Integer> literalList1 = clause1.getVariables();
-        ArrayList<Integer> literalList2 = clause2.getVariables();
-
-        int x;
-        int y;
-        for ( int i = 0; i < listSize; i++ ) {
-            x = Math.abs( literalList1.get(i) );
-            y = Math.abs( literalList2.get(i) );
-            if ( x == y ) {
-                matchTracker++;
-            }
+        recordStatistics( search );
+        if ( search.isStopped() ) {
+            return Status.UNKNOWN;
         }
-
-        return matchTracker;
-    }
-
-    // This is a dumb function to pick a new literal to branch on.
-    // assignedLiterals is an ArrayList of literals that have already been picked.
-    // pickLiteral simply picks a value that has not been picked.
-    // If all literals have been picked, it returns -1.
-    private int pickLiteral(ArrayList<Literal> assignedLiterals, ArrayList<Literal> allLiterals) {
-        Literal oppositeLiteral;
-        for ( Literal literal : allLiterals ) {
-            oppositeLiteral = new Literal( literal );
-            oppositeLiteral.complement();
-            if (!assignedLiterals.contains(literal) && !assignedLiterals.contains(oppositeLiteral)) {
-                return literal.getLiteral();
-            }
+        if ( isFormulaSAT ) {
+            recordFormulaSolution( search );
+            return Status.SAT;
         }
+        return Status.UNSAT;
+    }
 
-        return -1;
+    long getNumberOfDecisions() {
+        return numberOfDecisions;
     }
 
-    private void sortLiteralList() {
-        int literalCount ;
-        for (Literal literal : literalList) {
-            literalCount = countLiteralAppearances(clauseList, literal);
-            literal.setLiteralCount(literalCount);
-        }
-        Collections.sort(literalList, new Comparator<Literal>() {
-            @Override public int compare(Literal lit1, Literal lit2) {
-                return lit2.getAppearances() - lit1.getAppearances();
-            }
+    long getNumberOfConflicts() {
+        return numberOfConflicts;
+    }
 
-        });
+    long getNumberOfPropagations() {
+        return numberOfPropagations;
     }
 
-    // Counts the number of times a literal appears in a list of clauses
-    private int countLiteralAppearances(ArrayList<Clause> currentClauseList, Literal literal) {
-        int count = 0;
-        for (Clause clause : currentClauseList) {
-            if (clause.literalExists(literal)) {
-                count++;
+    // Counts the number of clauses each variable appears in, then orders literalList by that count.  The sort is
+    // stable, so variables that appear equally often stay in the order they first appear in the file.
+    private void sortLiteralList() {
+        literalAppearances = new int[maxVariable + 1];
+        for ( int clause = clauses.first(); clause < clauses.end(); clause = clauses.next(clause) ) {
+            for ( int i = 0; i < clauses.size(clause); i++ ) {
+                literalAppearances[Literal.variable( clauses.literal(clause, i) )]++;
             }
         }
-        return count;
-    }
 
-    private void assignLiteralToClauses(ArrayList<Clause> clauseSubList, Literal newLiteral) {
-        for (Clause clause : clauseSubList) {
-            clause.assign(newLiteral);
+        Integer[] sorter = new Integer[literalList.length];
+        for ( int i = 0; i < literalList.length; i++ ) {
+            sorter[i] = literalList[i];
         }
-    }
-
-    private boolean isFormulaSAT(ArrayList<Clause> clauseArrayToCheck) {
-        for (Clause clause : clauseArrayToCheck) {
-            if (!clause.isSAT()) {
-                return false;
+        Arrays.sort(sorter, new Comparator<Integer>() {
+            @Override public int compare(Integer lit1, Integer lit2) {
+                return literalAppearances[lit2] - literalAppearances[lit1];
             }
+
+        });
+        for ( int i = 0; i < literalList.length; i++ ) {
+            literalList[i] = sorter[i];
         }
-        return true;
     }
 
     private void printFormulaSolution() {
         StringBuilder output = new StringBuilder(numVariables);
-        int finalLiteral;
         int finalValue;
 
         output.append("RESULT: SAT \n");
         output.append("ASSIGNMENT: ");
 
-        for (Literal literal : formulaSolution) {
-            finalLiteral = literal.getLiteral();
+        for (int literal : literalList) {
             finalValue = 0;
             // if the value assigned to a literal is true, assign value of 1.
-            if (literal.getValue()) {
+            if (formulaSolution[literal]) {
                 finalValue = 1;
             }
-            output.append(finalLiteral);
+            output.append(literal);
             output.append("=");
             output.append(finalValue);
             output.append(" ");
@@ -663,38 +467,33 @@ public class Formula {
         System.out.println(output.toString());
         System.out.println("Decisions: " + numberOfDecisions);
         System.out.println("Conflicts: " + numberOfConflicts);
+        System.out.println("Restarts: " + numberOfRestarts);
+        System.out.println("Reductions: " + numberOfReductions);
     }
 
-    private void recordFormulaSolution( ArrayList<Literal> assignedLiterals ) {
-        for ( Literal lit : assignedLiterals ) {
-            if ( lit.getValue() ) {
-                lit.complement();
-                int index = literalList.indexOf( lit );
-                literalList.get( index ).complement();
+    // The variables of literalList that are left after preprocessing, in the same order.
+    private int[] remainingVariables() {
+        int[] remaining = new int[literalList.length];
+        int size = 0;
+        for ( int variable : literalList ) {
+            if ( !preprocessor.isEliminated( variable ) ) {
+                remaining[size++] = variable;
             }
         }
-        formulaSolution = literalList;
+        return Arrays.copyOf( remaining, size );
     }
 
-    private void copyDataStructures(ArrayList<Literal> assignedLiterals, ArrayList<Literal> leftLiteralBranch, ArrayList<Literal> rightLiteralBranch) {
-        // Copy the assigned literals to two new lists that will be used in the recursive calls
-        for (Literal literal : assignedLiterals) {
-            leftLiteralBranch.add(new Literal(literal));
-            rightLiteralBranch.add(new Literal(literal));
+    // Eliminated variables are not part of the search, so their values are worked out from the clauses they were
+    // eliminated with.
+    private void recordFormulaSolution( Search search ) {
+        for ( int literal : literalList ) {
+            formulaSolution[literal] = search.getValue( literal );
         }
-    }
-
-    private boolean isFormulaSAT() {
-        for (int i = 0; i < clauseList.size(); i++) {
-            if (!clauseList.get(i).isSAT()) {
-                return false;
-            }
-        }
-        return true;
+        preprocessor.extendModel( formulaSolution );
     }
 
     public void bruteForceSolution() {
-        int x = bruteForceSATSolver( clauseList, literalList );
+        int x = bruteForceSATSolver();
 
         if ( x == 0 ) {
             printBruteForceSolution();
@@ -703,67 +502,64 @@ public class Formula {
         }
     }
 
-    private int bruteForceSATSolver(ArrayList<Clause> bruteClauseList, ArrayList<Literal> bruteLiteralList ) {
-        int i, j;
-        BigInteger totalPossibilities;
+    // Tries every assignment of the variables in literalList, 64 at a time on each thread.
+    private int bruteForceSATSolver() {
+        System.out.println("Total combinations: " + BigInteger.ONE.shiftLeft(literalList.length));
+        if (literalList.length > BruteForce.MAX_VARIABLES) {
+            System.out.println("Too many variables for brute force.");
+            return -2;
+        }
 
-        totalPossibilities = new BigInteger("2");
-        totalPossibilities = totalPossibilities.pow(bruteLiteralList.size());
+        BruteForce bruteForce = new BruteForce(clauses, literalList, maxVariable, threads);
+        boolean satisfiable = bruteForce.solve();
+        System.out.println("Assignments tried: " + bruteForce.getNumberOfAssignmentsTried());
+        if (!satisfiable) {
+            return -1;
+        }
+        formulaSolution = bruteForce.getModel();
+        return 0;
+    }
 
-        System.out.println("Total combinations: " + totalPossibilities.toString());
+    // Exhaustive search in Gray code order.  With countModels every model is counted instead of stopping at the first.
+    public void grayCodeSolution(boolean countModels) {
+        if (literalList.length > GrayCode.MAX_VARIABLES) {
+            System.out.println("Too many variables for exhaustive search.");
+            return;
+        }
 
-        while (!isFormulaSAT()) {
-            incrementLiteralListValues();
-            for (i = 0; i < bruteClauseList.size(); i++) {
-                for (j = 0; j < bruteLiteralList.size(); j++) {
-                    if (!bruteClauseList.get(i).isSAT()) {
-                        bruteClauseList.get(i).assignBrute(bruteLiteralList.get(j));
-                    }
-                }
-            }
-            totalPossibilities = totalPossibilities.subtract(BigInteger.ONE);
-            if (totalPossibilities.equals(BigInteger.ZERO)) break;
+        GrayCode grayCode = new GrayCode(clauses, literalList, maxVariable);
+        if (countModels) {
+            // Variables of the header that no clause mentions double the count each.
+            int freeVariables = Math.max(0, numVariables - literalList.length);
+            BigInteger models = BigInteger.valueOf(grayCode.countModels()).shiftLeft(freeVariables);
+            System.out.println("Assignments tried: " + grayCode.getNumberOfSteps());
+            System.out.println("Models: " + models);
         }
-        if (isFormulaSAT()) {
-            return 0;
+        else if (grayCode.solve()) {
+            System.out.println("Assignments tried: " + grayCode.getNumberOfSteps());
+            formulaSolution = grayCode.getModel();
+            printBruteForceSolution();
         }
         else {
-            return -1;
-        }
-    }
-
-    private void incrementLiteralListValues() {
-        boolean carry = true;
-        for (int i = (literalList.size() - 1); i >= 0; i--) {
-            if (carry) {
-                if (!literalList.get(i).getValue()) {
-                    literalList.get(i).assign(true);
-                    carry = false;
-                }
-                else {
-                    literalList.get(i).assign(false);
-                    carry = true;
-                }
-            }
+            System.out.println("Assignments tried: " + grayCode.getNumberOfSteps());
+            System.out.println("No solution!");
         }
     }
 
     private void printBruteForceSolution() {
         StringBuilder output = new StringBuilder(numVariables);
-        int finalLiteral;
         int finalValue;
 
         output.append("RESULT: SAT \n");
         output.append("ASSIGNMENT: ");
 
-        for (Literal literal : literalList) {
-            finalLiteral = literal.getLiteral();
+        for (int literal : literalList) {
             finalValue = 0;
             // if the value assigned to a literal is true, assign value of 1.
-            if (literal.getValue()) {
+            if (formulaSolution[literal]) {
                 finalValue = 1;
             }
-            output.append(finalLiteral);
+            output.append(literal);
             output.append("=");
             output.append(finalValue);
             output.append(" ");
@@ -777,4 +573,25 @@ public class Formula {
         DEBUG = true;
     }
 
+    void setThreads ( int threads ) {
+        this.threads = threads;
+    }
+
+    void setProgressInterval ( double seconds ) {
+        progressSeconds = seconds;
+    }
+
+    void setCubeAndConquer ( boolean cubeAndConquer ) {
+        this.cubeAndConquer = cubeAndConquer;
+    }
+
+    void setRestartPolicy ( RestartPolicy policy ) {
+        restartPolicy = policy;
+    }
+
+    // Only a single search logs its clauses, so this is for formulas solved without threads or cubes.
+    void setProof ( Path proofFile ) {
+        this.proofFile = proofFile;
+    }
+
 }
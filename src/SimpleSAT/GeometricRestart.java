@@ -0,0 +1,30 @@
+package SimpleSAT;
+
+// Restarts after first conflicts, then waits factor times longer before each following restart.
+
+class GeometricRestart extends RestartPolicy {
+    private final int first;
+    private final double factor;
+    private double interval;
+    private long conflictsLeft;
+
+    GeometricRestart(int first, double factor) {
+        this.first = first;
+        this.factor = factor;
+        this.interval = first;
+        this.conflictsLeft = first;
+    }
+
+    boolean conflict(int lbd) {
+        return --conflictsLeft <= 0;
+    }
+
+    void restarted() {
+        interval *= factor;
+        conflictsLeft = (long) interval;
+    }
+
+    RestartPolicy copy() {
+        return new GeometricRestart(first, factor);
+    }
+}
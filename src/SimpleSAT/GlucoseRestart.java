@@ -0,0 +1,54 @@
+package SimpleSAT;
+
+// Glucose-style dynamic restarts.  The LBD of recently learned clauses is compared with the average over the whole
+// run: when the last windowSize clauses are on average clearly worse (higher LBD) than everything learned so far,
+// the search is likely stuck in a poor part of the tree and restarts.
+//
+// The recent LBDs are kept in a ring buffer with a running sum, so each conflict costs O(1).
+
+class GlucoseRestart extends RestartPolicy {
+    private final double margin;
+    private final int[] window;
+    private int windowSize;
+    private int windowPosition;
+    private long windowSum;
+    private long totalSum;
+    private long totalConflicts;
+
+    // margin is the K of glucose: restart when recentAverage * margin > totalAverage.
+    GlucoseRestart(int windowSize, double margin) {
+        this.margin = margin;
+        this.window = new int[windowSize];
+    }
+
+    boolean conflict(int lbd) {
+        totalSum += lbd;
+        totalConflicts++;
+
+        if (windowSize == window.length) {
+            windowSum -= window[windowPosition];
+        } else {
+            windowSize++;
+        }
+        window[windowPosition] = lbd;
+        windowSum += lbd;
+        windowPosition = (windowPosition + 1) % window.length;
+
+        if (windowSize < window.length) {
+            return false;
+        }
+        double recentAverage = (double) windowSum / windowSize;
+        double totalAverage = (double) totalSum / totalConflicts;
+        return recentAverage * margin > totalAverage;
+    }
+
+    void restarted() {
+        windowSize = 0;
+        windowPosition = 0;
+        windowSum = 0;
+    }
+
+    RestartPolicy copy() {
+        return new GlucoseRestart(window.length, margin);
+    }
+}
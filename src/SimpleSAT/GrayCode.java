@@ -0,0 +1,122 @@
+package SimpleSAT;
+
+// Walks every assignment of the variables in Gray code order, so that each step flips exactly one variable.
+// Step k flips the variable at the position of the lowest set bit of k.  Every clause keeps a count of its true
+// literals and unsatisfied counts the clauses at zero, so a flip only visits the clauses the flipped variable occurs
+// in, through its occurrence lists, and the assignment satisfies the formula whenever unsatisfied is 0.  The walk
+// stops at the first model, or counts all of them.
+
+class GrayCode {
+    // Above this many variables the step number doesn't fit in a long.  The walk would not finish anyway.
+    static final int MAX_VARIABLES = 62;
+
+    private final int[] variables;
+    private final int maxVariable;
+    // occurrences[2 * i] lists the clauses variable i occurs in positively, occurrences[2 * i + 1] negatively,
+    // i being the variable's position in variables.
+    private final int[][] occurrences;
+    private final int[] trueLiterals;
+    private int unsatisfied;
+    private final boolean[] values;
+
+    private long numberOfModels;
+    private long numberOfSteps;
+
+    GrayCode(ClauseArena clauses, int[] variables, int maxVariable) {
+        this.variables = variables;
+        this.maxVariable = maxVariable;
+
+        int[] index = new int[maxVariable + 1];
+        for (int i = 0; i < variables.length; i++) {
+            index[variables[i]] = i;
+        }
+        int numberOfClauses = 0;
+        int[] sizes = new int[2 * variables.length];
+        for (int ref = clauses.first(); ref < clauses.end(); ref = clauses.next(ref)) {
+            if (clauses.isDeleted(ref)) continue;
+            numberOfClauses++;
+            for (int i = 0; i < clauses.size(ref); i++) {
+                sizes[code(index, clauses.literal(ref, i))]++;
+            }
+        }
+        occurrences = new int[2 * variables.length][];
+        for (int i = 0; i < occurrences.length; i++) {
+            occurrences[i] = new int[sizes[i]];
+            sizes[i] = 0;
+        }
+
+        // Every variable starts false, so a clause starts with one true literal per negative literal.
+        trueLiterals = new int[numberOfClauses];
+        int clause = 0;
+        for (int ref = clauses.first(); ref < clauses.end(); ref = clauses.next(ref)) {
+            if (clauses.isDeleted(ref)) continue;
+            for (int i = 0; i < clauses.size(ref); i++) {
+                int literal = clauses.literal(ref, i);
+                int code = code(index, literal);
+                occurrences[code][sizes[code]++] = clause;
+                if (Literal.isNegative(literal)) trueLiterals[clause]++;
+            }
+            if (trueLiterals[clause] == 0) unsatisfied++;
+            clause++;
+        }
+        values = new boolean[variables.length];
+    }
+
+    private static int code(int[] index, int literal) {
+        return 2 * index[Literal.variable(literal)] + (Literal.isNegative(literal) ? 1 : 0);
+    }
+
+    // Returns true if the formula is SAT.  The model can then be read with getModel.
+    boolean solve() {
+        return walk(false);
+    }
+
+    // Counts every model over the variables of the walk.
+    long countModels() {
+        walk(true);
+        return numberOfModels;
+    }
+
+    private boolean walk(boolean countAll) {
+        long steps = 1L << variables.length;
+        for (long step = 0; step < steps; step++) {
+            if (step > 0) {
+                flip(Long.numberOfTrailingZeros(step));
+            }
+            numberOfSteps++;
+            if (unsatisfied == 0) {
+                numberOfModels++;
+                if (!countAll) {
+                    return true;
+                }
+            }
+        }
+        return numberOfModels > 0;
+    }
+
+    private void flip(int variable) {
+        values[variable] = !values[variable];
+        // The literals of the new value become true and those of the old one false.
+        int[] becomeTrue = occurrences[2 * variable + (values[variable] ? 0 : 1)];
+        int[] becomeFalse = occurrences[2 * variable + (values[variable] ? 1 : 0)];
+        for (int clause : becomeTrue) {
+            if (trueLiterals[clause]++ == 0) unsatisfied--;
+        }
+        for (int clause : becomeFalse) {
+            if (--trueLiterals[clause] == 0) unsatisfied++;
+        }
+    }
+
+    // The value of each variable in the current assignment, indexed by variable.
+    boolean[] getModel() {
+        boolean[] model = new boolean[maxVariable + 1];
+        for (int i = 0; i < variables.length; i++) {
+            model[variables[i]] = values[i];
+        }
+        return model;
+    }
+
+    long getNumberOfSteps() {
+        return numberOfSteps;
+    }
+}
@@ -1,112 +1,39 @@
 package SimpleSAT;
 
-public class Literal {
-    // literal is the actual # in the CNF file of the literal.  Value is always positive.
-    private int literal;
-    // value is the T or F value assigned to the literal during the algorithm.
-    private boolean value;
-    // Counts the number of appearances in the formula.
-    private int appearances;
-    // If the literal is forced, it is marked as such.
-    private boolean forced;
-    // This is true if the literal value is on a right branch.
-    private boolean rightBranch;
+// Literals are plain ints.  Variable x is encoded as 2*x and its complement -x as 2*x+1, so a literal and its
+// complement differ only in the lowest bit and either one can index an array of per-literal data directly.
+// Variables keep the numbers they have in the CNF file, so literals 0 and 1 are never used.
 
-    // The constructor method.  This takes the array of integers in a[] and assigns them to the variables array.
-    Literal(final int a) {
-        this.literal = a;
-        this.value = false;
-        this.appearances = 0;
-        this.forced = false;
-        this.rightBranch = false;
-    }
-
-    Literal(final int a, boolean v) {
-        this.literal = a;
-        this.value = v;
-        this.rightBranch = false;
-    }
-
-    Literal (Literal literalObject) {
-        literal = literalObject.literal;
-        value = literalObject.value;
-        appearances = literalObject.appearances;
-        forced = literalObject.forced;
-        rightBranch = literalObject.rightBranch;
-    }
-
-    void assign(boolean val) {
-        value = val;
-    }
-
-    void setLiteralCount(int count) {
-        appearances = count;
-    }
+final class Literal {
 
-    void setLiteral(int lit) {
-        literal = lit;
+    private Literal() {
     }
 
-    void setValue( boolean val ) {
-        value = val;
+    // Converts a literal in the ±x form of a CNF file.
+    static int fromDimacs(int literal) {
+        if (literal > 0) return 2 * literal;
+        else return -2 * literal + 1;
     }
 
-    void setRightBranch() { rightBranch = true; }
-
-    boolean isRightBranch() { return rightBranch; }
-
-    boolean getForced () {
-        return forced;
+    static int toDimacs(int literal) {
+        if ((literal & 1) == 0) return literal >> 1;
+        else return -(literal >> 1);
     }
 
-    void complement () {
-        value = !value;
+    static int fromVariable(int variable, boolean value) {
+        if (value) return 2 * variable;
+        else return 2 * variable + 1;
     }
 
-    int getLiteral() {
-        return literal;
+    static int variable(int literal) {
+        return literal >> 1;
     }
 
-    int getFullLiteral() {
-        if ( value ) return literal;
-        else return -1*literal;
+    static int negate(int literal) {
+        return literal ^ 1;
     }
 
-    boolean getValue() {
-        return value;
+    static boolean isNegative(int literal) {
+        return (literal & 1) != 0;
     }
-
-    void setForced () {
-        forced = true;
-    }
-
-    boolean isForced() {return forced; }
-
-    int getAppearances() {
-        return appearances;
-    }
-
-    // Set the number of the literal
-    void set(int lit) {
-        this.literal = lit;
-    }
-
-    @Override
-    public String toString() {
-        String output;
-        // Uncomment the end of this line to add the value to the Literal output
-        output = literal + " "; // + " " + Boolean.toString(value);
-        return output;
-    }
-
-    @Override
-    public boolean equals(Object object)
-    {
-        if (object instanceof Literal)
-        {
-            return ((this.literal == ((Literal) object).literal) && (this.value == ((Literal) object).value));
-        }
-        return false;
-    }
-
 }
@@ -0,0 +1,46 @@
+package SimpleSAT;
+
+// Restarts after unit * luby(i) conflicts, where luby(i) is the i-th term of 1 1 2 1 1 2 4 1 1 2 1 1 2 4 8 ...
+// Most runs are short, but every length comes back again doubled, which is optimal to within a constant factor when
+// nothing is known about the instance.
+
+class LubyRestart extends RestartPolicy {
+    private final int unit;
+    private int restarts;
+    private long conflictsLeft;
+
+    LubyRestart(int unit) {
+        this.unit = unit;
+        this.restarts = 0;
+        this.conflictsLeft = unit * luby(0);
+    }
+
+    boolean conflict(int lbd) {
+        return --conflictsLeft <= 0;
+    }
+
+    void restarted() {
+        restarts++;
+        conflictsLeft = unit * luby(restarts);
+    }
+
+    RestartPolicy copy() {
+        return new LubyRestart(unit);
+    }
+
+    // Finds the subsequence that contains index i, and the size of that subsequence, then the position of i in it.
+    static long luby(int i) {
+        int size = 1;
+        int sequence = 0;
+        while (size < i + 1) {
+            sequence++;
+            size = 2 * size + 1;
+        }
+        while (size - 1 != i) {
+            size = (size - 1) >> 1;
+            sequence--;
+            i = i % size;
+        }
+        return 1L << sequence;
+    }
+}
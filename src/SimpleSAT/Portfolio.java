@@ -0,0 +1,125 @@
+package SimpleSAT;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Runs several differently configured searches on the same formula in parallel and takes the first answer.
+// The formula's arena is only read: every worker starts from its own copy of the flat clause array, since a search
+// reorders literals and adds learned clauses in place.  So the original clauses are held once per worker, plus
+// room to grow, and memory grows with -j.  Sharing them would need the two watched literals of a clause kept
+// outside it, since a search keeps them in its first two slots, and learned clauses in an arena of their own, with
+// refs that tell the two apart; the copy keeps propagation on one array instead.  Worker 0 runs the default
+// configuration, so -j 1 behaves like the plain search; the others vary the restart policy, the initial phases and
+// the seed.  Short and low-LBD learned clauses are shared through a ClauseExchange.  As soon as one worker has an
+// answer the others are stopped.
+
+class Portfolio {
+    private static final int EXCHANGE_CAPACITY = 1 << 14;
+    private static final String[] RESTART_POLICIES = { "luby", "glucose", "geometric" };
+    private static final int[] INITIAL_PHASES = { Search.ORIGINAL, Search.INVERTED, Search.ORIGINAL, Search.RANDOM };
+
+    private final ClauseArena clauses;
+    private final int maxVariable;
+    private final int[] variables;
+    private final int workers;
+    private RestartPolicy restartPolicy;
+    private SolverMetrics metrics;
+    private Budget budget;
+
+    private Search winner;
+    private int winningWorker;
+
+    Portfolio(ClauseArena clauses, int maxVariable, int[] variables, int workers) {
+        this.clauses = clauses;
+        this.maxVariable = maxVariable;
+        this.variables = variables;
+        this.workers = workers;
+    }
+
+    // Returns true if the formula is SAT.  The search that answered can then be read from getWinner.
+    boolean solve() {
+        final AtomicBoolean stop = new AtomicBoolean();
+        final ClauseExchange exchange = new ClauseExchange(EXCHANGE_CAPACITY);
+        final boolean[] results = new boolean[workers];
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        CompletionService<Integer> finished = new ExecutorCompletionService<>(pool);
+        final Search[] searches = new Search[workers];
+        for (int i = 0; i < workers; i++) {
+            final int worker = i;
+            finished.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    searches[worker] = newWorker(worker, exchange, stop);
+                    results[worker] = searches[worker].solve();
+                    return worker;
+                }
+            });
+        }
+
+        try {
+            // Only the first worker to finish can't have been stopped.
+            winningWorker = finished.take().get();
+            stop.set(true);
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            stop.set(true);
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while solving", e);
+        } catch (ExecutionException e) {
+            stop.set(true);
+            pool.shutdownNow();
+            throw new IllegalStateException("A search worker failed", e.getCause());
+        }
+
+        winner = searches[winningWorker];
+        return results[winningWorker];
+    }
+
+    // The worker's search gets a full copy of the arena, see the class comment.
+    private Search newWorker(int worker, ClauseExchange exchange, AtomicBoolean stop) {
+        Search search = new Search(new ClauseArena(clauses), maxVariable, variables);
+        if (worker == 0) {
+            if (restartPolicy != null) search.setRestartPolicy(restartPolicy);
+        } else {
+            search.setRestartPolicy(RestartPolicy.forName(RESTART_POLICIES[worker % RESTART_POLICIES.length]));
+            search.setSeed(worker);
+            search.setInitialPhase(INITIAL_PHASES[worker % INITIAL_PHASES.length]);
+        }
+        search.setExchange(exchange, worker);
+        search.setStopFlag(stop);
+        search.setBudget(budget);
+        if (metrics != null) search.setMetrics(metrics.newSlot());
+        return search;
+    }
+
+    // The restart policy of worker 0.  The other workers pick their own.
+    void setRestartPolicy(RestartPolicy restartPolicy) {
+        this.restartPolicy = restartPolicy;
+    }
+
+    void setMetrics(SolverMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // Shared by every worker.  The first one to run out of it stops the others, and the winner is then stopped.
+    void setBudget(Budget budget) {
+        this.budget = budget;
+    }
+
+    Search getWinner() {
+        return winner;
+    }
+
+    int getWinningWorker() {
+        return winningWorker;
+    }
+}
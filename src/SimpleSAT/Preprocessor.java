@@ -0,0 +1,536 @@
+package SimpleSAT;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+// Simplifies the original clauses of a ClauseArena before the search, in place.
+// Every clause is indexed in the occurrence list of each of its literals and gets a signature: a 64-bit mask with
+// bit (variable mod 64) set for each of its variables.  C can only subsume D if every bit of C's signature is also
+// in D's, so most pairs are ruled out with a single AND, and the rest are checked by merging their sorted literals.
+//
+// Clauses are taken from a queue, smallest first.  Each is used for backward subsumption over the occurrence lists
+// of its least frequent variable: every clause it subsumes is removed, and every clause it subsumes but for one
+// literal of opposite sign is strengthened by dropping that literal (self-subsuming resolution: (x y) and
+// (-x y z) give (y z)).  A strengthened clause is checked for forward subsumption, by the clauses already in the
+// formula, and goes back in the queue if it survives.  (x y z)(x y -z) becoming (x y), and (x)(-x) becoming the
+// empty clause, fall out of this as special cases.
+//
+// Then variables are eliminated by clause distribution, cheapest first: the clauses containing x and those
+// containing -x are replaced by all their non-tautological resolvents on x, as long as there are no more resolvents
+// than clauses removed.  The resolvents go through subsumption like any strengthened clause.  Every removed clause
+// is pushed on the elimination stack, so a model of the simplified formula can be extended to the eliminated
+// variables with extendModel.
+
+class Preprocessor {
+    private static final int NONE = -1;
+    private static final int SUBSUMED = -2;
+    // A variable is only eliminated if one of its literals occurs at most this often, and no resolvent is longer
+    // than RESOLVENT_LIMIT.
+    private static final int OCCURRENCE_LIMIT = 10;
+    private static final int RESOLVENT_LIMIT = 20;
+
+    private final ClauseArena arena;
+    private final int maxVariable;
+
+    // The clauses by index: their ref in the arena (-1 for resolvents), their literals, sorted as the arena stores
+    // them, and their signature.  changed marks the clauses that were strengthened or added and have to be written
+    // back.
+    private int[] refs;
+    private int[][] literals;
+    private long[] signatures;
+    private boolean[] removed;
+    private boolean[] changed;
+    private int numberOfClauses;
+
+    // occurrences[l] holds the index of every clause containing literal l.  Removed clauses and dropped literals
+    // are not taken out of the lists, so every entry is checked against the clause itself when it is used.
+    private int[][] occurrences;
+    private int[] occurrenceSizes;
+
+    private int[] queue;
+    private boolean[] queued;
+    private int queueHead, queueTail;
+
+    // Each clause removed by elimination is pushed with the literal of the eliminated variable first, followed by
+    // its length.
+    private boolean[] eliminated;
+    private int[] eliminationStack;
+    private int eliminationStackSize;
+
+    private int numberOfSubsumed;
+    private int numberOfStrengthened;
+    private int numberOfEliminated;
+
+    // Every clause added or deleted is logged here, if it is set.
+    private ProofWriter proof;
+
+    Preprocessor(ClauseArena arena, int maxVariable) {
+        this.arena = arena;
+        this.maxVariable = maxVariable;
+        eliminated = new boolean[maxVariable + 1];
+        eliminationStack = new int[16];
+        int numberOfLiterals = 2 * (maxVariable + 1);
+        occurrences = new int[numberOfLiterals][];
+        occurrenceSizes = new int[numberOfLiterals];
+        for (int i = 0; i < numberOfLiterals; i++) {
+            occurrences[i] = new int[2];
+        }
+    }
+
+    void setProof(ProofWriter proof) {
+        this.proof = proof;
+    }
+
+    // Returns false if the formula was found unsat.
+    boolean simplify() {
+        load();
+        queueBySize();
+        if (!subsumeQueued()) {
+            return false;
+        }
+
+        for (int variable : eliminationOrder()) {
+            if (!eliminate(variable)) {
+                return false;
+            }
+        }
+
+        store();
+        return true;
+    }
+
+    private boolean subsumeQueued() {
+        while (queueHead < queueTail) {
+            int clause = queue[queueHead++];
+            queued[clause] = false;
+            if (!removed[clause] && !backwardSubsume(clause)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Copies every original clause out of the arena.  Tautologies are deleted on the way.
+    private void load() {
+        int capacity = Math.max(16, arena.getNumberOfClauses());
+        refs = new int[capacity];
+        literals = new int[capacity][];
+        numberOfClauses = 0;
+
+        for (int ref = arena.first(); ref < arena.end(); ref = arena.next(ref)) {
+            if (arena.isDeleted(ref) || arena.isLearnt(ref)) {
+                continue;
+            }
+            if (arena.isTautology(ref)) {
+                if (proof != null) proof.delete(arena, ref);
+                arena.delete(ref);
+                continue;
+            }
+            if (numberOfClauses == refs.length) {
+                refs = Arrays.copyOf(refs, 2 * numberOfClauses);
+                literals = Arrays.copyOf(literals, 2 * numberOfClauses);
+            }
+            int[] clauseLiterals = new int[arena.size(ref)];
+            for (int i = 0; i < clauseLiterals.length; i++) {
+                clauseLiterals[i] = arena.literal(ref, i);
+                addOccurrence(clauseLiterals[i], numberOfClauses);
+            }
+            refs[numberOfClauses] = ref;
+            literals[numberOfClauses++] = clauseLiterals;
+        }
+
+        signatures = new long[refs.length];
+        removed = new boolean[refs.length];
+        changed = new boolean[refs.length];
+        for (int i = 0; i < numberOfClauses; i++) {
+            signatures[i] = signature(literals[i]);
+        }
+    }
+
+    // Queues every clause, shortest first, with a counting sort on the sizes.
+    private void queueBySize() {
+        int longest = 0;
+        for (int i = 0; i < numberOfClauses; i++) {
+            longest = Math.max(longest, literals[i].length);
+        }
+        int[] starts = new int[longest + 2];
+        for (int i = 0; i < numberOfClauses; i++) {
+            starts[literals[i].length + 1]++;
+        }
+        for (int size = 1; size <= longest + 1; size++) {
+            starts[size] += starts[size - 1];
+        }
+
+        queue = new int[Math.max(16, numberOfClauses)];
+        queued = new boolean[refs.length];
+        for (int i = 0; i < numberOfClauses; i++) {
+            queue[starts[literals[i].length]++] = i;
+            queued[i] = true;
+        }
+        queueHead = 0;
+        queueTail = numberOfClauses;
+    }
+
+    private void enqueue(int clause) {
+        if (queued[clause]) {
+            return;
+        }
+        if (queueTail == queue.length) {
+            // Reuse the space of the clauses already taken off before growing.
+            System.arraycopy(queue, queueHead, queue, 0, queueTail - queueHead);
+            queueTail -= queueHead;
+            queueHead = 0;
+            if (queueTail > queue.length / 2) {
+                queue = Arrays.copyOf(queue, 2 * queue.length);
+            }
+        }
+        queued[clause] = true;
+        queue[queueTail++] = clause;
+    }
+
+    // Removes or strengthens every clause the given one subsumes.  Every such clause contains each variable of this
+    // one, so only the occurrence lists of its least frequent variable need to be walked.
+    // Returns false if a clause became empty.
+    private boolean backwardSubsume(int clause) {
+        int[] clauseLiterals = literals[clause];
+        if (clauseLiterals.length == 0) {
+            return false;
+        }
+
+        int best = clauseLiterals[0];
+        for (int literal : clauseLiterals) {
+            if (occurrenceSizes[literal] + occurrenceSizes[Literal.negate(literal)]
+                    < occurrenceSizes[best] + occurrenceSizes[Literal.negate(best)]) {
+                best = literal;
+            }
+        }
+
+        for (int literal = best; ; literal = Literal.negate(best)) {
+            int[] list = occurrences[literal];
+            int size = occurrenceSizes[literal];
+            for (int k = 0; k < size; k++) {
+                int other = list[k];
+                if (other == clause || removed[other] || literals[other].length < clauseLiterals.length
+                        || (signatures[clause] & ~signatures[other]) != 0) {
+                    continue;
+                }
+                int result = subsumes(clauseLiterals, literals[other]);
+                if (result == SUBSUMED) {
+                    remove(other);
+                } else if (result != NONE && !strengthen(other, result)) {
+                    return false;
+                }
+            }
+            if (literal != best) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    // Drops a literal from a clause.  Returns false if the clause became empty.
+    private boolean strengthen(int clause, int literal) {
+        int[] oldLiterals = literals[clause];
+        int[] newLiterals = new int[oldLiterals.length - 1];
+        int j = 0;
+        for (int other : oldLiterals) {
+            if (other != literal) {
+                newLiterals[j++] = other;
+            }
+        }
+        // The shorter clause has to be in the proof before the one it replaces leaves it.
+        if (proof != null) {
+            proof.add(newLiterals, 0, newLiterals.length);
+            proof.delete(oldLiterals, 0, oldLiterals.length);
+        }
+        literals[clause] = newLiterals;
+        signatures[clause] = signature(newLiterals);
+        changed[clause] = true;
+        numberOfStrengthened++;
+
+        if (newLiterals.length == 0) {
+            return false;
+        }
+        if (forwardSubsumed(clause)) {
+            remove(clause);
+        } else {
+            enqueue(clause);
+        }
+        return true;
+    }
+
+    // Whether some other clause subsumes this one.  Such a clause shares at least one literal with it, so the
+    // occurrence lists of its literals cover every candidate.
+    private boolean forwardSubsumed(int clause) {
+        int[] clauseLiterals = literals[clause];
+        for (int literal : clauseLiterals) {
+            int[] list = occurrences[literal];
+            int size = occurrenceSizes[literal];
+            for (int k = 0; k < size; k++) {
+                int other = list[k];
+                if (other == clause || removed[other] || literals[other].length > clauseLiterals.length
+                        || (signatures[other] & ~signatures[clause]) != 0) {
+                    continue;
+                }
+                if (subsumes(literals[other], clauseLiterals) == SUBSUMED) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Checks whether clause c subsumes clause d by merging their literals, which are sorted by variable.
+    // Returns SUBSUMED if every literal of c is in d, the literal of d to drop if that holds for all but one literal
+    // of c whose negation is in d, and NONE otherwise.
+    private static int subsumes(int[] c, int[] d) {
+        int flipped = NONE;
+        int j = 0;
+        for (int i = 0; i < c.length; i++) {
+            int variable = Literal.variable(c[i]);
+            while (j < d.length && Literal.variable(d[j]) < variable) {
+                j++;
+            }
+            if (j == d.length || Literal.variable(d[j]) != variable) {
+                return NONE;
+            }
+            if (d[j] != c[i]) {
+                if (flipped != NONE) {
+                    return NONE;
+                }
+                flipped = d[j];
+            }
+            j++;
+        }
+        return flipped == NONE ? SUBSUMED : flipped;
+    }
+
+    private void remove(int clause) {
+        if (proof != null) proof.delete(literals[clause], 0, literals[clause].length);
+        removed[clause] = true;
+        numberOfSubsumed++;
+    }
+
+    // The variables in order of the number of resolvents eliminating them could produce at most.
+    private Integer[] eliminationOrder() {
+        Integer[] order = new Integer[maxVariable];
+        for (int variable = 1; variable <= maxVariable; variable++) {
+            order[variable - 1] = variable;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Long.compare(cost(a), cost(b));
+            }
+        });
+        return order;
+    }
+
+    private long cost(int variable) {
+        return (long) occurrenceSizes[Literal.fromVariable(variable, true)]
+                * occurrenceSizes[Literal.fromVariable(variable, false)];
+    }
+
+    // Eliminates a variable if that doesn't add clauses.  Returns false if an empty resolvent was found.
+    private boolean eliminate(int variable) {
+        int[] positive = liveOccurrences(Literal.fromVariable(variable, true));
+        int[] negative = liveOccurrences(Literal.fromVariable(variable, false));
+        if (positive.length == 0 && negative.length == 0) {
+            return true;
+        }
+        if (positive.length > OCCURRENCE_LIMIT && negative.length > OCCURRENCE_LIMIT) {
+            return true;
+        }
+
+        int limit = positive.length + negative.length;
+        int[][] resolvents = new int[limit][];
+        int numberOfResolvents = 0;
+        for (int p : positive) {
+            for (int n : negative) {
+                int[] resolvent = resolve(literals[p], literals[n], variable);
+                if (resolvent == null) {
+                    continue;
+                }
+                if (numberOfResolvents == limit || resolvent.length > RESOLVENT_LIMIT) {
+                    return true;
+                }
+                resolvents[numberOfResolvents++] = resolvent;
+            }
+        }
+
+        // The resolvents follow from the clauses about to be removed, so they are logged first.
+        if (proof != null) {
+            for (int i = 0; i < numberOfResolvents; i++) {
+                proof.add(resolvents[i], 0, resolvents[i].length);
+            }
+        }
+        for (int clause : positive) {
+            saveEliminated(clause, Literal.fromVariable(variable, true));
+        }
+        for (int clause : negative) {
+            saveEliminated(clause, Literal.fromVariable(variable, false));
+        }
+        eliminated[variable] = true;
+        numberOfEliminated++;
+
+        for (int i = 0; i < numberOfResolvents; i++) {
+            if (resolvents[i].length == 0) {
+                return false;
+            }
+            addClause(resolvents[i]);
+        }
+        return subsumeQueued();
+    }
+
+    // The clauses that still contain a literal.
+    private int[] liveOccurrences(int literal) {
+        int[] list = occurrences[literal];
+        int[] live = new int[occurrenceSizes[literal]];
+        int size = 0;
+        for (int k = 0; k < occurrenceSizes[literal]; k++) {
+            int clause = list[k];
+            if (!removed[clause] && Arrays.binarySearch(literals[clause], literal) >= 0) {
+                live[size++] = clause;
+            }
+        }
+        return Arrays.copyOf(live, size);
+    }
+
+    // Resolves two clauses on a variable by merging their sorted literals.  Returns null if the resolvent is a
+    // tautology.
+    private static int[] resolve(int[] c, int[] d, int variable) {
+        int[] resolvent = new int[c.length + d.length - 2];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < c.length || j < d.length) {
+            int literal;
+            if (j == d.length || (i < c.length && c[i] <= d[j])) {
+                literal = c[i++];
+            } else {
+                literal = d[j++];
+            }
+            if (Literal.variable(literal) == variable) {
+                continue;
+            }
+            if (size > 0 && resolvent[size - 1] == literal) {
+                continue;
+            }
+            if (size > 0 && resolvent[size - 1] == Literal.negate(literal)) {
+                return null;
+            }
+            resolvent[size++] = literal;
+        }
+        return Arrays.copyOf(resolvent, size);
+    }
+
+    private void saveEliminated(int clause, int pivot) {
+        int[] clauseLiterals = literals[clause];
+        if (eliminationStackSize + clauseLiterals.length + 1 > eliminationStack.length) {
+            eliminationStack = Arrays.copyOf(eliminationStack,
+                    Math.max(2 * eliminationStack.length, eliminationStackSize + clauseLiterals.length + 1));
+        }
+        eliminationStack[eliminationStackSize++] = pivot;
+        for (int literal : clauseLiterals) {
+            if (literal != pivot) {
+                eliminationStack[eliminationStackSize++] = literal;
+            }
+        }
+        eliminationStack[eliminationStackSize++] = clauseLiterals.length;
+        if (proof != null) proof.delete(clauseLiterals, 0, clauseLiterals.length);
+        removed[clause] = true;
+    }
+
+    private void addClause(int[] clauseLiterals) {
+        if (numberOfClauses == refs.length) {
+            int capacity = 2 * numberOfClauses;
+            refs = Arrays.copyOf(refs, capacity);
+            literals = Arrays.copyOf(literals, capacity);
+            signatures = Arrays.copyOf(signatures, capacity);
+            removed = Arrays.copyOf(removed, capacity);
+            changed = Arrays.copyOf(changed, capacity);
+            queued = Arrays.copyOf(queued, capacity);
+        }
+        int clause = numberOfClauses++;
+        refs[clause] = -1;
+        literals[clause] = clauseLiterals;
+        signatures[clause] = signature(clauseLiterals);
+        changed[clause] = true;
+        for (int literal : clauseLiterals) {
+            addOccurrence(literal, clause);
+        }
+        if (forwardSubsumed(clause)) {
+            remove(clause);
+        } else {
+            enqueue(clause);
+        }
+    }
+
+    // Extends a model of the simplified formula to the eliminated variables.  The removed clauses are visited in
+    // the reverse of the order they were eliminated in, and every one not satisfied yet is satisfied by setting the
+    // eliminated variable.  As all the resolvents are satisfied, one value of each variable satisfies all its
+    // clauses.
+    void extendModel(boolean[] model) {
+        int i = eliminationStackSize;
+        while (i > 0) {
+            int length = eliminationStack[--i];
+            i -= length;
+            boolean satisfied = false;
+            for (int k = i; k < i + length && !satisfied; k++) {
+                int literal = eliminationStack[k];
+                satisfied = model[Literal.variable(literal)] != Literal.isNegative(literal);
+            }
+            if (!satisfied) {
+                int pivot = eliminationStack[i];
+                model[Literal.variable(pivot)] = !Literal.isNegative(pivot);
+            }
+        }
+    }
+
+    private static long signature(int[] clauseLiterals) {
+        long signature = 0;
+        for (int literal : clauseLiterals) {
+            signature |= 1L << (Literal.variable(literal) & 63);
+        }
+        return signature;
+    }
+
+    private void addOccurrence(int literal, int clause) {
+        int size = occurrenceSizes[literal];
+        if (size == occurrences[literal].length) {
+            occurrences[literal] = Arrays.copyOf(occurrences[literal], size * 2);
+        }
+        occurrences[literal][size] = clause;
+        occurrenceSizes[literal] = size + 1;
+    }
+
+    // Writes the result back: removed clauses are deleted from the arena and strengthened ones replaced.  Nothing
+    // refers into the arena yet, so it is compacted right away.
+    private void store() {
+        for (int i = 0; i < numberOfClauses; i++) {
+            if ((removed[i] || changed[i]) && refs[i] >= 0) {
+                arena.delete(refs[i]);
+            }
+            if (!removed[i] && changed[i]) {
+                arena.add(literals[i], 0, literals[i].length, false);
+            }
+        }
+        arena.compact();
+    }
+
+    int getNumberOfSubsumed() {
+        return numberOfSubsumed;
+    }
+
+    int getNumberOfStrengthened() {
+        return numberOfStrengthened;
+    }
+
+    int getNumberOfEliminated() {
+        return numberOfEliminated;
+    }
+
+    boolean isEliminated(int variable) {
+        return eliminated[variable];
+    }
+}
@@ -0,0 +1,60 @@
+package SimpleSAT;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+// Prints a status line with the metrics of a running solve at a fixed interval.  Rates are over the last interval,
+// so a search that has slowed down or stalled shows up at once.
+
+final class ProgressReporter implements Runnable {
+    private final SolverMetrics metrics;
+    private final ScheduledExecutorService timer;
+    private double lastSeconds;
+    private long lastDecisions, lastConflicts, lastPropagations;
+
+    private ProgressReporter(SolverMetrics metrics) {
+        this.metrics = metrics;
+        this.timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "progress");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    static ProgressReporter start(SolverMetrics metrics, double intervalSeconds) {
+        ProgressReporter reporter = new ProgressReporter(metrics);
+        long interval = Math.max(1, (long) (intervalSeconds * 1000));
+        reporter.timer.scheduleAtFixedRate(reporter, interval, interval, TimeUnit.MILLISECONDS);
+        return reporter;
+    }
+
+    void stop() {
+        timer.shutdownNow();
+    }
+
+    @Override
+    public void run() {
+        double seconds = metrics.getElapsedSeconds();
+        long decisions = metrics.getDecisions();
+        long conflicts = metrics.getConflicts();
+        long propagations = metrics.getPropagations();
+        double interval = seconds - lastSeconds;
+
+        System.out.println(String.format("Progress: %.1fs decisions %d (%.0f/s) conflicts %d (%.0f/s) "
+                        + "propagations %d (%.0f/s) trail %d learned %d database %.1fMB restarts %d",
+                seconds, decisions, (decisions - lastDecisions) / interval, conflicts,
+                (conflicts - lastConflicts) / interval, propagations, (propagations - lastPropagations) / interval,
+                metrics.getTrailDepth(), metrics.getLearnedClauses(), metrics.getClauseDatabaseBytes() / 1e6,
+                metrics.getRestarts()));
+
+        lastSeconds = seconds;
+        lastDecisions = decisions;
+        lastConflicts = conflicts;
+        lastPropagations = propagations;
+    }
+}
@@ -0,0 +1,132 @@
+package SimpleSAT;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Writes a DRAT proof in the binary format: 'a' or 'd', then each literal as a variable-length unsigned number,
+// then 0.  A literal is numbered 2x for x and 2x+1 for -x, which is already how Literal encodes it.
+// The search fills a large direct buffer and hands it to a writer thread when it is full, taking an empty one from
+// a small pool in exchange, so it only waits for the disk when every buffer is waiting to be written.  If writing
+// fails, the rest of the proof is dropped and close throws the error, so the search itself never has to stop.
+
+final class ProofWriter {
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int BUFFERS = 4;
+    // A literal takes at most five bytes, and the end of the clause one more.
+    private static final int LITERAL_SPACE = 6;
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final FileChannel channel;
+    private final BlockingQueue<ByteBuffer> full = new ArrayBlockingQueue<>(BUFFERS + 1);
+    private final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(BUFFERS);
+    private final Thread writer;
+    private ByteBuffer buffer;
+    private volatile IOException failure;
+
+    ProofWriter(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        for (int i = 1; i < BUFFERS; i++) {
+            free.add(ByteBuffer.allocateDirect(BUFFER_SIZE));
+        }
+        writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        }, "proof-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Logs the clause made of literals[from..to) as added.
+    void add(int[] literals, int from, int to) {
+        write('a', literals, from, to);
+    }
+
+    // Logs the clause made of literals[from..to) as deleted.
+    void delete(int[] literals, int from, int to) {
+        write('d', literals, from, to);
+    }
+
+    // Logs a clause of the arena as deleted.
+    void delete(ClauseArena clauses, int ref) {
+        int start = ref + ClauseArena.HEADER;
+        write('d', clauses.getData(), start, start + clauses.size(ref));
+    }
+
+    private void write(char kind, int[] literals, int from, int to) {
+        if (buffer.remaining() < LITERAL_SPACE) swap();
+        buffer.put((byte) kind);
+        for (int i = from; i < to; i++) {
+            if (buffer.remaining() < LITERAL_SPACE) swap();
+            int literal = literals[i];
+            while ((literal & ~0x7f) != 0) {
+                buffer.put((byte) ((literal & 0x7f) | 0x80));
+                literal >>>= 7;
+            }
+            buffer.put((byte) literal);
+        }
+        buffer.put((byte) 0);
+    }
+
+    private void swap() {
+        buffer.flip();
+        try {
+            full.put(buffer);
+            buffer = free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing the proof", e);
+        }
+        buffer.clear();
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                ByteBuffer next = full.take();
+                if (next == END) {
+                    return;
+                }
+                if (failure == null) {
+                    try {
+                        while (next.hasRemaining()) {
+                            channel.write(next);
+                        }
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+                next.clear();
+                free.put(next);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Writes what is left and closes the file.  Throws the first error the writer thread ran into.
+    void close() throws IOException {
+        try {
+            buffer.flip();
+            full.put(buffer);
+            full.put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing the proof", e);
+        } finally {
+            channel.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package SimpleSAT;
+
+// Decides when the search restarts.  A restart backtracks to level 0 but keeps the learned clauses and the decision
+// heuristic, so the search starts over from the top of the tree with everything it has learned so far.
+// The search reports every conflict along with the LBD (the number of distinct decision levels) of the clause it
+// learned from it, and restarts whenever the policy asks it to.
+
+abstract class RestartPolicy {
+
+    // Called after every conflict.  Returns true if the search should restart now.
+    abstract boolean conflict(int lbd);
+
+    // Called when the search has restarted.
+    abstract void restarted();
+
+    // Returns a policy with the same parameters in its starting state, for another search.  A policy keeps the
+    // state of the one search it is given to, so searches that run side by side can't share one.
+    abstract RestartPolicy copy();
+
+    // Returns the policy with the given command line name, or null if there is none.
+    static RestartPolicy forName(String name) {
+        switch (name) {
+            case "luby":
+                return new LubyRestart(100);
+            case "geometric":
+                return new GeometricRestart(100, 1.5);
+            case "glucose":
+                return new GlucoseRestart(50, 0.8);
+            case "none":
+                return new NoRestart();
+            default:
+                return null;
+        }
+    }
+
+    static final class NoRestart extends RestartPolicy {
+        boolean conflict(int lbd) {
+            return false;
+        }
+
+        void restarted() {
+        }
+
+        RestartPolicy copy() {
+            return new NoRestart();
+        }
+    }
+}
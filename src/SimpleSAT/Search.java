@@ -0,0 +1,1330 @@
+package SimpleSAT;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// The CDCL search over the clauses of a ClauseArena.
+// The assignment array is the single record of which variables have which values.  Every assigned literal is also
+// pushed onto the trail, so the search can undo assignments level by level, and unit propagation runs over the
+// watch lists so that an assignment only visits the clauses watching the literal it falsifies.
+// Each conflict is analyzed through the reasons of the assigned literals into a learned clause, which is added to
+// the same arena, and the search jumps back to the level where that clause forces its first literal.
+// Learned clauses are also listed in learnts.  Every so often the half of them least likely to help again is deleted
+// and the arena compacted, so the memory they take stays bounded on long runs.
+
+class Search {
+    private static final byte TRUE = 1;
+    private static final byte FALSE = -1;
+    private static final byte UNASSIGNED = 0;
+    private static final int NO_REASON = -1;
+    private static final double ACTIVITY_DECAY = 0.95;
+    private static final double ACTIVITY_LIMIT = 1e100;
+    private static final double CLAUSE_ACTIVITY_DECAY = 0.999;
+    private static final double CLAUSE_ACTIVITY_LIMIT = 1e20;
+    private static final int FIRST_REDUCE = 2000;
+    private static final int REDUCE_INCREMENT = 300;
+    // Learned clauses with an LBD this low are glue clauses and are never deleted.
+    private static final int GLUE_LBD = 2;
+    private static final int REPHASE_INTERVAL = 1000;
+
+    // Rephasing strategies, applied in the order of REPHASE_CYCLE.  The first three can also set the initial phases.
+    static final int ORIGINAL = 0;
+    static final int INVERTED = 1;
+    static final int RANDOM = 2;
+    private static final int BEST = 3;
+    private static final int[] REPHASE_CYCLE = { ORIGINAL, BEST, INVERTED, BEST, RANDOM, BEST };
+
+    private final ClauseArena clauses;
+    private int maxVariable;
+
+    // assignment holds TRUE, FALSE or UNASSIGNED for each variable, reason holds the ref of the clause that forced
+    // it (NO_REASON for decisions and unit clauses) and level the decision level it was assigned at.
+    private Watches watches;
+    private byte[] assignment;
+    private int[] reason;
+    private int[] level;
+
+    // The trail holds every assigned literal in assignment order.  The literals from queueHead to trailSize have
+    // not been propagated yet.  trailLimits[d] is the trail size when decision level d+1 was opened, so backtracking
+    // to level d only unassigns the literals above trailLimits[d].
+    private int[] trail;
+    private int queueHead, trailSize;
+    private int[] trailLimits;
+    private int decisionLevel;
+
+    private ArrayList<Integer> unitLiterals;
+    private boolean hasEmptyClause;
+
+    // VSIDS decision heuristic.  Every variable involved in a conflict has its activity bumped by activityIncrement,
+    // and the increment grows after every conflict, which decays all older bumps relative to new ones.  The
+    // unassigned variables are kept in a heap ordered by activity, so the next decision is its top.
+    private double[] activity;
+    private double activityIncrement;
+    private VariableHeap variableHeap;
+
+    // Phase saving.  phase holds the value each variable had when it was last unassigned, and a decision assigns
+    // that value again, so the search returns to the parts of the assignment it had already worked out after a
+    // backjump or restart.  Every rephaseInterval conflicts the saved phases are all reset by the next strategy of
+    // REPHASE_CYCLE: back to false (the original polarity), to true, at random, or to the best phases, the values
+    // on the longest trail seen since the last rephase.
+    private boolean[] phase;
+    private boolean[] bestPhase;
+    private int bestTrailSize;
+    private long nextRephase;
+    private int rephaseCount;
+    private Random random;
+
+    private RestartPolicy restartPolicy;
+    // levelStamps marks the decision levels already counted by computeLBD.
+    private int[] levelStamps;
+    private int lbdStamp;
+    private int conflictClauseLBD;
+
+    // The learned clause tier.  learnts holds the ref of every learned clause still in the arena.  Each has an LBD,
+    // lowered whenever it is seen lower during analysis, and an activity bumped every time it takes part in a
+    // conflict, decaying like the variable activities.  The database is reduced once the number of conflicts
+    // reaches nextReduce, and the interval between reductions grows each time.
+    private int[] learnts;
+    private int numberOfLearnts;
+    private double clauseActivityIncrement;
+    private long nextReduce;
+    private int reduceInterval;
+
+    // Vivification.  At the first restart after nextVivify conflicts, learned clauses that were not tried yet are
+    // shortened by propagation, lowest LBD first.  A pass stops once it has made one propagation for every
+    // VIVIFY_EFFORT the search made since the last pass.
+    private static final int VIVIFY_INTERVAL = 2000;
+    private static final int VIVIFY_EFFORT = 10;
+    private long nextVivify;
+    private long propagationsAtLastVivify;
+    private int[] vivifyBuffer = new int[16];
+
+    // Conflict analysis buffers.  seen marks the variables already visited for the current conflict; the clause
+    // being learned is built in conflictClauseBuilder and every variable marked in seen is also put in toClear.
+    private boolean[] seen;
+    private int[] conflictClauseBuilder;
+    private int conflictClauseSize;
+    private int[] analyzeStack;
+    private int[] toClear;
+    private int toClearSize;
+
+    private long numberOfDecisions;
+    private long numberOfConflicts;
+    private long numberOfRestarts;
+    private long numberOfReductions;
+    private long numberOfPropagations;
+    private long numberOfPropagateCalls;
+
+    // Portfolio mode.  Learned clauses that are short or have a low LBD are published to the exchange, and the
+    // clauses of the other workers are imported whenever the search is back on level 0.  The search gives up as
+    // soon as stop is set, when another worker has found the answer.
+    private static final int EXPORT_SIZE = 2;
+    private static final int EXPORT_LBD = 3;
+    private ClauseExchange exchange;
+    private int worker;
+    private long exchangeCursor;
+    private AtomicBoolean stop;
+    private boolean stopped;
+
+    // The search also gives up when its budget is spent, and then both stopped and outOfBudget are set.  The
+    // counters are compared with what they were when solve started.
+    private static final int CLOCK_CHECK_MASK = 63;
+    private Budget budget;
+    private boolean outOfBudget;
+    private long conflictsAtStart;
+    private long propagationsAtStart;
+    private int budgetChecks;
+
+    // Assumptions are literals decided before any other, each on its own level, in the order given.  solve then
+    // answers whether the formula is SAT with all of them true.  If one of them turns out false, the answer is no
+    // for these assumptions only and assumptionFailed is set.
+    private int[] assumptions = new int[0];
+    private boolean assumptionFailed;
+    // The assumptions that made the last solve fail, found by analyzeFinal.
+    private int[] failedAssumptions = new int[0];
+
+    // Live metrics.  The counters are copied to the slot every PUBLISH_INTERVAL_MASK + 1 conflicts, at the end, and
+    // once PUBLISH_NANOS have passed since the last copy, so a search that propagates long without conflicts still
+    // shows progress.  The clock is only read every PUBLISH_CHECK_PROPAGATIONS propagations.
+    private static final int PUBLISH_INTERVAL_MASK = 255;
+    private static final long PUBLISH_CHECK_PROPAGATIONS = 1 << 16;
+    private static final long PUBLISH_NANOS = 100000000L;
+    private long nextPublishCheck;
+    private long lastPublished;
+    private SolverMetrics.Slot metrics;
+
+    // Every learned clause added or deleted is logged here, if it is set, and the empty clause once the formula is
+    // found unsat.  Clauses imported from other workers are not, so a proof needs a search of its own.
+    private ProofWriter proof;
+
+    private boolean DEBUG = false;
+
+    // literalList holds the variables of the formula.  Until conflicts set the activities apart, decisions are
+    // picked in its order.
+    Search(ClauseArena clauses, int maxVariable, int[] literalList) {
+        this.clauses = clauses;
+        this.maxVariable = maxVariable;
+
+        watches = new Watches(maxVariable);
+        assignment = new byte[maxVariable + 1];
+        reason = new int[maxVariable + 1];
+        Arrays.fill(reason, NO_REASON);
+        level = new int[maxVariable + 1];
+        trail = new int[maxVariable + 1];
+        trailLimits = new int[maxVariable + 1];
+        unitLiterals = new ArrayList<>();
+        seen = new boolean[maxVariable + 1];
+        conflictClauseBuilder = new int[maxVariable + 1];
+        analyzeStack = new int[maxVariable + 1];
+        toClear = new int[maxVariable + 1];
+
+        activity = new double[maxVariable + 1];
+        activityIncrement = 1;
+        variableHeap = new VariableHeap(activity, maxVariable);
+        for (int variable : literalList) {
+            variableHeap.insert(variable);
+        }
+
+        phase = new boolean[maxVariable + 1];
+        bestPhase = new boolean[maxVariable + 1];
+        bestTrailSize = 0;
+        nextRephase = REPHASE_INTERVAL;
+        rephaseCount = 0;
+        random = new Random(1);
+
+        restartPolicy = RestartPolicy.forName("luby");
+        levelStamps = new int[maxVariable + 1];
+        lbdStamp = 0;
+
+        learnts = new int[16];
+        numberOfLearnts = 0;
+        clauseActivityIncrement = 1;
+        reduceInterval = FIRST_REDUCE;
+        nextReduce = FIRST_REDUCE;
+        nextVivify = VIVIFY_INTERVAL;
+
+        for (int ref = clauses.first(); ref < clauses.end(); ref = clauses.next(ref)) {
+            if (!clauses.isDeleted(ref)) {
+                attachClause(ref);
+            }
+        }
+    }
+
+    // Returns true if the formula is SAT.  The satisfying assignment can then be read with getValue.
+    boolean solve() {
+        Object event = SolverEvents.RECORDER.beginSolve();
+        boolean satisfiable = false;
+        try {
+            assumptionFailed = false;
+            failedAssumptions = new int[0];
+            stopped = false;
+            outOfBudget = false;
+            conflictsAtStart = numberOfConflicts;
+            propagationsAtStart = numberOfPropagations;
+            backtrack( 0 );
+            satisfiable = assignUnitClauses() && CDCL();
+            if ( proof != null && !satisfiable && !stopped && !assumptionFailed ) {
+                proof.add( conflictClauseBuilder, 0, 0 );
+            }
+            return satisfiable;
+        } finally {
+            if ( metrics != null ) publishMetrics();
+            if ( event != null ) {
+                String result = stopped ? "STOPPED" : satisfiable ? "SAT"
+                        : assumptionFailed ? "FAILED ASSUMPTION" : "UNSAT";
+                SolverEvents.RECORDER.commitSolve( event, result, assumptions.length, numberOfDecisions,
+                        numberOfConflicts, numberOfPropagations );
+            }
+        }
+    }
+
+    // Returns true if the formula is SAT with every literal of assumptions true.  The search can be called again with
+    // other assumptions and keeps what it has learned, since learned clauses never depend on the decisions.
+    boolean solve(int[] assumptions) {
+        // Assumptions that are already true still take a level each.
+        if ( trailLimits.length < assumptions.length + maxVariable + 1 ) {
+            trailLimits = Arrays.copyOf( trailLimits, assumptions.length + maxVariable + 1 );
+            levelStamps = Arrays.copyOf( levelStamps, assumptions.length + maxVariable + 1 );
+        }
+        this.assumptions = assumptions;
+        try {
+            return solve();
+        } finally {
+            this.assumptions = new int[0];
+        }
+    }
+
+    // Adds a clause between calls to solve.  It is simplified against level 0 like an imported clause, so what is
+    // left is either a unit to assign there or a clause whose literals are all unassigned and can be watched.
+    void addClause(int[] literals, int size) {
+        backtrack( 0 );
+        int maximum = 0;
+        for ( int i = 0; i < size; i++ ) {
+            maximum = Math.max( maximum, Literal.variable( literals[i] ) );
+        }
+        ensureVariables( maximum );
+        // A variable that was only assumed so far is not in the heap yet.
+        for ( int i = 0; i < size; i++ ) {
+            variableHeap.insert( Literal.variable( literals[i] ) );
+        }
+
+        int[] clause = Arrays.copyOf( literals, size );
+        Arrays.sort( clause );
+        int kept = 0;
+        for ( int i = 0; i < size; i++ ) {
+            byte value = literalValue( clause[i] );
+            // Sorted, a literal's complement comes right after it.
+            if ( value == TRUE || ( i + 1 < size && clause[i + 1] == Literal.negate( clause[i] ) ) ) {
+                return;
+            }
+            if ( value == UNASSIGNED && ( kept == 0 || clause[kept - 1] != clause[i] ) ) {
+                clause[kept++] = clause[i];
+            }
+        }
+        if ( kept == 0 ) {
+            hasEmptyClause = true;
+        } else if ( kept == 1 ) {
+            unitLiterals.add( clause[0] );
+            enqueue( clause[0], NO_REASON );
+        } else {
+            watchFirstTwo( clauses.add( clause, 0, kept, false ) );
+        }
+    }
+
+    // Makes room for variables up to maximum.  New variables start unassigned, with no activity, and can be decided.
+    void ensureVariables(int maximum) {
+        if ( maximum <= maxVariable ) {
+            return;
+        }
+        int length = maximum + 1;
+        watches.grow( maximum );
+        assignment = Arrays.copyOf( assignment, length );
+        reason = Arrays.copyOf( reason, length );
+        Arrays.fill( reason, maxVariable + 1, length, NO_REASON );
+        level = Arrays.copyOf( level, length );
+        trail = Arrays.copyOf( trail, length );
+        trailLimits = Arrays.copyOf( trailLimits, Math.max( trailLimits.length, length ) );
+        levelStamps = Arrays.copyOf( levelStamps, Math.max( levelStamps.length, length ) );
+        seen = Arrays.copyOf( seen, length );
+        conflictClauseBuilder = Arrays.copyOf( conflictClauseBuilder, length );
+        analyzeStack = Arrays.copyOf( analyzeStack, length );
+        toClear = Arrays.copyOf( toClear, length );
+        activity = Arrays.copyOf( activity, length );
+        phase = Arrays.copyOf( phase, length );
+        bestPhase = Arrays.copyOf( bestPhase, length );
+        variableHeap.grow( activity, maximum );
+        for ( int variable = maxVariable + 1; variable <= maximum; variable++ ) {
+            variableHeap.insert( variable );
+        }
+        maxVariable = maximum;
+    }
+
+    // Assigns the given literals as decisions on level 0 and propagates each.  Returns the number of literals
+    // assigned above level 0, or -1 if one of them is false or propagation hits a conflict.  Used as a lookahead:
+    // the search is back on level 0 afterwards.
+    int probe(int[] literals, int size) {
+        backtrack( 0 );
+        if ( !assignUnitClauses() || propagate() != NO_REASON ) {
+            return -1;
+        }
+        int base = trailSize;
+        int assigned = -1;
+        for (int i = 0; i <= size; i++) {
+            if ( i == size ) {
+                assigned = trailSize - base;
+                break;
+            }
+            byte value = literalValue( literals[i] );
+            if ( value == FALSE ) {
+                break;
+            }
+            if ( value == UNASSIGNED ) {
+                newDecisionLevel();
+                enqueue( literals[i], NO_REASON );
+                if ( propagate() != NO_REASON ) {
+                    break;
+                }
+            }
+        }
+        backtrack( 0 );
+        return assigned;
+    }
+
+    // The CDCL search loop.  Every decision opens a new level on the trail with the picked variable set to its saved
+    // phase.
+    // When propagation hits a conflict, the conflict is analyzed into a learned clause, the search backjumps to the
+    // level where that clause becomes unit and propagates its asserting literal from there.  A conflict on level 0
+    // does not depend on any decision, so the formula is unsat.  The restart policy is told about every conflict and
+    // may send the search back to level 0, where learned clauses are vivified now and then.  Learned clauses are
+    // reduced between conflicts, when every assignment on the trail has been propagated.  Nothing is allocated per
+    // decision and all state is bounded by the number of variables, so the depth of the search is not limited by the
+    // call stack.
+    private boolean CDCL () {
+        int nextLiteral;
+
+        while ( true ) {
+            if ( stop != null && stop.get() ) {
+                stopped = true;
+                return false;
+            }
+            if ( budget != null && isBudgetSpent() ) {
+                stopped = true;
+                outOfBudget = true;
+                return false;
+            }
+
+            int conflict = propagateAndRecord();
+            if ( metrics != null && numberOfPropagations >= nextPublishCheck ) {
+                nextPublishCheck = numberOfPropagations + PUBLISH_CHECK_PROPAGATIONS;
+                if ( System.nanoTime() - lastPublished >= PUBLISH_NANOS ) {
+                    publishMetrics();
+                }
+            }
+            if ( conflict != NO_REASON ) {
+                numberOfConflicts++;
+                if ( metrics != null && ( numberOfConflicts & PUBLISH_INTERVAL_MASK ) == 0 ) {
+                    publishMetrics();
+                }
+                if ( decisionLevel == 0 ) {
+                    hasEmptyClause = true;
+                    return false;
+                }
+                Object conflictEvent = null;
+                if ( numberOfConflicts % SolverEvents.CONFLICT_SAMPLE == 0 ) {
+                    conflictEvent = SolverEvents.RECORDER.beginConflict();
+                }
+                int conflictLevel = decisionLevel;
+                int backtrackLevel = analyze( conflict );
+                backtrack( backtrackLevel );
+                addConflictClause();
+                if ( conflictEvent != null ) {
+                    SolverEvents.RECORDER.commitConflict( conflictEvent, conflictLevel, backtrackLevel,
+                            conflictClauseSize, conflictClauseLBD );
+                }
+                decayActivities();
+                decayClauseActivities();
+                if ( restartPolicy.conflict( conflictClauseLBD ) ) {
+                    if ( DEBUG ) System.out.println("Restart");
+                    SolverEvents.RECORDER.restart( numberOfConflicts, decisionLevel, trailSize );
+                    backtrack( 0 );
+                    restartPolicy.restarted();
+                    numberOfRestarts++;
+                    if ( numberOfConflicts >= nextVivify && !vivify() ) {
+                        hasEmptyClause = true;
+                        return false;
+                    }
+                }
+                if ( numberOfConflicts >= nextRephase ) {
+                    rephase();
+                }
+                continue;
+            }
+
+            if ( decisionLevel == 0 && exchange != null ) {
+                if ( !importClauses() ) {
+                    hasEmptyClause = true;
+                    return false;
+                }
+                if ( queueHead < trailSize ) {
+                    continue;
+                }
+            }
+
+            if ( numberOfConflicts >= nextReduce ) {
+                reduceLearnts();
+            }
+
+            // The next assumption is decided first.  One that is already true still gets its own, empty level, so
+            // that level d always belongs to assumption d.
+            int decision = -1;
+            while ( decisionLevel < assumptions.length ) {
+                int assumption = assumptions[decisionLevel];
+                byte value = literalValue( assumption );
+                if ( value == FALSE ) {
+                    assumptionFailed = true;
+                    analyzeFinal( assumption );
+                    return false;
+                }
+                if ( value == UNASSIGNED ) {
+                    decision = assumption;
+                    break;
+                }
+                newDecisionLevel();
+            }
+
+            if ( decision == -1 ) {
+                // Pick a new literal to branch on.  Returns -1 if no literals are left.
+                nextLiteral = pickLiteral();
+
+                // Every variable has a value and propagation found no conflict, so every clause is satisfied.
+                if (nextLiteral == -1) {
+                    return true;
+                }
+                decision = Literal.fromVariable( nextLiteral, phase[nextLiteral] );
+            }
+
+            // Keep track of how many decisions we make in the algorithm.  This is a decent metric of algorithm efficiency.
+            numberOfDecisions++;
+
+            if ( DEBUG ) System.out.println("Decision on " + Literal.toDimacs( decision ));
+            newDecisionLevel();
+            enqueue( decision, NO_REASON );
+        }
+    }
+
+    // Propagates every queued literal.  For each literal that becomes false, only the clauses in its watch list are
+    // visited: a clause whose blocker or other watch is true is skipped, otherwise a new unassigned or true literal
+    // is looked for to watch instead.  If none is found the clause is unit and its other watch is forced, or, if the
+    // other watch is already false, it is a conflict.
+    // Returns the ref of the conflicting clause, or NO_REASON if all queued literals were propagated without conflict.
+    private int propagate() {
+        int[] data = clauses.getData();
+        while (queueHead < trailSize) {
+            int falseLiteral = Literal.negate(trail[queueHead++]);
+            numberOfPropagations++;
+            int[] watchClauses = watches.getClauses(falseLiteral);
+            int[] blockers = watches.getBlockers(falseLiteral);
+            int size = watches.getSize(falseLiteral);
+            int i = 0;
+            int j = 0;
+
+            while (i < size) {
+                int blocker = blockers[i];
+                if (literalValue(blocker) == TRUE) {
+                    watchClauses[j] = watchClauses[i];
+                    blockers[j++] = blockers[i++];
+                    continue;
+                }
+
+                int clause = watchClauses[i++];
+                int start = clause + ClauseArena.HEADER;
+                int end = start + data[clause + ClauseArena.SIZE];
+
+                // Keep the false literal in position 1.
+                if (data[start] == falseLiteral) {
+                    data[start] = data[start + 1];
+                    data[start + 1] = falseLiteral;
+                }
+
+                // The other watch is true, so the clause is satisfied.  Use it as the blocker from now on.
+                int first = data[start];
+                if (first != blocker && literalValue(first) == TRUE) {
+                    watchClauses[j] = clause;
+                    blockers[j++] = first;
+                    continue;
+                }
+
+                // Look for a literal that is not false to watch instead.
+                boolean foundWatch = false;
+                for (int k = start + 2; k < end; k++) {
+                    if (literalValue(data[k]) != FALSE) {
+                        data[start + 1] = data[k];
+                        data[k] = falseLiteral;
+                        watches.add(data[start + 1], clause, first);
+                        foundWatch = true;
+                        break;
+                    }
+                }
+                if (foundWatch) continue;
+
+                // No new watch, so the clause is unit under the current assignment, or conflicting.
+                watchClauses[j] = clause;
+                blockers[j++] = first;
+                if (literalValue(first) == FALSE) {
+                    while (i < size) {
+                        watchClauses[j] = watchClauses[i];
+                        blockers[j++] = blockers[i++];
+                    }
+                    watches.setSize(falseLiteral, j);
+                    queueHead = trailSize;
+                    return clause;
+                }
+                if ( DEBUG ) System.out.println("Value of " + Literal.variable(first) + " forced.");
+                enqueue(first, clause);
+            }
+            watches.setSize(falseLiteral, j);
+        }
+        return NO_REASON;
+    }
+
+    // Propagates, recording one call in SolverEvents.PROPAGATE_SAMPLE as an event.
+    private int propagateAndRecord() {
+        if ( ++numberOfPropagateCalls % SolverEvents.PROPAGATE_SAMPLE != 0 ) {
+            return propagate();
+        }
+        Object event = SolverEvents.RECORDER.beginPropagate();
+        if ( event == null ) {
+            return propagate();
+        }
+        long before = numberOfPropagations;
+        int conflict = propagate();
+        SolverEvents.RECORDER.commitPropagate( event, numberOfPropagations - before, conflict != NO_REASON );
+        return conflict;
+    }
+
+    // Assigns a literal and queues it for propagation.  Returns false if the literal is already false.
+    private boolean enqueue(int literal, int forcingClause) {
+        byte value = literalValue(literal);
+        if (value != UNASSIGNED) {
+            return value == TRUE;
+        }
+        int variable = Literal.variable(literal);
+        if (Literal.isNegative(literal)) assignment[variable] = FALSE;
+        else assignment[variable] = TRUE;
+        reason[variable] = forcingClause;
+        level[variable] = decisionLevel;
+        trail[trailSize++] = literal;
+        return true;
+    }
+
+    private byte literalValue(int literal) {
+        byte value = assignment[Literal.variable(literal)];
+        if (Literal.isNegative(literal)) return (byte) -value;
+        else return value;
+    }
+
+    // Opens a new decision level.  Its decision is the next literal enqueued.
+    private void newDecisionLevel() {
+        trailLimits[decisionLevel++] = trailSize;
+    }
+
+    // Unassigns every literal above targetLevel, most recent first, saving the phase of each.  The watches need no
+    // repair: a watch on an unassigned literal is always valid.
+    private void backtrack(int targetLevel) {
+        if (decisionLevel <= targetLevel) {
+            return;
+        }
+        if (trailSize > bestTrailSize) {
+            bestTrailSize = trailSize;
+            for (int i = 0; i < trailSize; i++) {
+                bestPhase[Literal.variable(trail[i])] = !Literal.isNegative(trail[i]);
+            }
+        }
+        int limit = trailLimits[targetLevel];
+        for (int i = trailSize - 1; i >= limit; i--) {
+            int variable = Literal.variable(trail[i]);
+            phase[variable] = assignment[variable] == TRUE;
+            assignment[variable] = UNASSIGNED;
+            reason[variable] = NO_REASON;
+            variableHeap.insert(variable);
+        }
+        trailSize = limit;
+        queueHead = limit;
+        decisionLevel = targetLevel;
+    }
+
+    // Unassigns every literal above level 0 like backtrack, but leaves the saved phases and the best trail alone, as
+    // these assignments were only probes and not the search's own.
+    private void cancelProbes() {
+        if (decisionLevel == 0) {
+            return;
+        }
+        int limit = trailLimits[0];
+        for (int i = trailSize - 1; i >= limit; i--) {
+            int variable = Literal.variable(trail[i]);
+            assignment[variable] = UNASSIGNED;
+            reason[variable] = NO_REASON;
+            variableHeap.insert(variable);
+        }
+        trailSize = limit;
+        queueHead = limit;
+        decisionLevel = 0;
+    }
+
+    // Resets every saved phase with the next strategy of the cycle.  The interval to the next rephase grows each time.
+    private void rephase() {
+        int strategy = REPHASE_CYCLE[rephaseCount % REPHASE_CYCLE.length];
+        rephaseCount++;
+        nextRephase = numberOfConflicts + (long) REPHASE_INTERVAL * (rephaseCount + 1);
+        resetPhases(strategy);
+        if ( DEBUG ) System.out.println("Rephase " + strategy);
+    }
+
+    private void resetPhases(int strategy) {
+        for (int variable = 1; variable <= maxVariable; variable++) {
+            switch (strategy) {
+                case ORIGINAL: phase[variable] = false; break;
+                case INVERTED: phase[variable] = true; break;
+                case RANDOM: phase[variable] = random.nextBoolean(); break;
+                default: phase[variable] = bestPhase[variable]; break;
+            }
+        }
+        if (strategy == BEST) {
+            bestTrailSize = 0;
+        }
+    }
+
+    // Unit clauses of the formula are assigned once, on level 0, before the search starts.
+    // Returns false if two of them contradict each other or the formula contains an empty clause.
+    private boolean assignUnitClauses() {
+        if (hasEmptyClause) {
+            return false;
+        }
+        for (int literal : unitLiterals) {
+            if (!enqueue(literal, NO_REASON)) {
+                numberOfConflicts++;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Works out which assumptions made the false assumption false: the decisions reached from it through the
+    // reasons on the trail.  Every decision below the assumption levels is an assumption.  Literals assigned on
+    // level 0 hold whatever is assumed, so they are not followed.
+    private void analyzeFinal( int assumption ) {
+        int[] data = clauses.getData();
+        int[] failed = new int[decisionLevel + 1];
+        int size = 0;
+        failed[size++] = assumption;
+        int variable = Literal.variable( assumption );
+        if ( level[variable] == 0 ) {
+            failedAssumptions = Arrays.copyOf( failed, size );
+            return;
+        }
+        seen[variable] = true;
+        for ( int i = trailSize - 1; i >= trailLimits[0]; i-- ) {
+            variable = Literal.variable( trail[i] );
+            if ( !seen[variable] ) {
+                continue;
+            }
+            seen[variable] = false;
+            int clause = reason[variable];
+            if ( clause == NO_REASON ) {
+                failed[size++] = trail[i];
+                continue;
+            }
+            int start = clause + ClauseArena.HEADER;
+            int end = start + data[clause + ClauseArena.SIZE];
+            for ( int k = start + 1; k < end; k++ ) {
+                int other = Literal.variable( data[k] );
+                if ( level[other] > 0 ) {
+                    seen[other] = true;
+                }
+            }
+        }
+        failedAssumptions = Arrays.copyOf( failed, size );
+    }
+
+    // Finds the first unique implication point of a conflict.  Starting from the conflicting clause, literals of the
+    // current decision level are resolved away through their reasons, walking the trail backwards, until only one
+    // is left.  Its negation goes in position 0 of the learned clause; every literal from a lower level is kept.
+    // The clause is then minimized and the literal with the highest remaining level is moved to position 1.
+    // Returns the level to backjump to, where the learned clause forces its first literal.
+    private int analyze( int conflict ) {
+        int[] data = clauses.getData();
+        int pathCount = 0;
+        int implied = -1;
+        int index = trailSize - 1;
+        conflictClauseSize = 1;
+        toClearSize = 0;
+
+        do {
+            if ( clauses.isLearnt( conflict ) ) {
+                bumpClauseActivity( conflict );
+                updateLBD( conflict );
+            }
+
+            // The implied literal sits in position 0 of its reason and is skipped.
+            int start = conflict + ClauseArena.HEADER;
+            int end = start + data[conflict + ClauseArena.SIZE];
+            for ( int k = ( implied == -1 ) ? start : start + 1; k < end; k++ ) {
+                int literal = data[k];
+                int variable = Literal.variable(literal);
+                if ( !seen[variable] && level[variable] > 0 ) {
+                    seen[variable] = true;
+                    toClear[toClearSize++] = variable;
+                    bumpActivity( variable );
+                    if ( level[variable] >= decisionLevel ) {
+                        pathCount++;
+                    } else {
+                        conflictClauseBuilder[conflictClauseSize++] = literal;
+                    }
+                }
+            }
+
+            // Select the next marked literal on the trail to resolve on.
+            while ( !seen[Literal.variable(trail[index--])] );
+            implied = trail[index + 1];
+            conflict = reason[Literal.variable(implied)];
+            seen[Literal.variable(implied)] = false;
+            pathCount--;
+        } while ( pathCount > 0 );
+        conflictClauseBuilder[0] = Literal.negate(implied);
+
+        minimizeConflictClause();
+        conflictClauseLBD = computeLBD( conflictClauseBuilder, conflictClauseSize );
+
+        for ( int i = 0; i < toClearSize; i++ ) {
+            seen[toClear[i]] = false;
+        }
+
+        if ( conflictClauseSize == 1 ) {
+            return 0;
+        }
+        int highest = 1;
+        for ( int i = 2; i < conflictClauseSize; i++ ) {
+            if ( level[Literal.variable(conflictClauseBuilder[i])] > level[Literal.variable(conflictClauseBuilder[highest])] ) {
+                highest = i;
+            }
+        }
+        int literal = conflictClauseBuilder[1];
+        conflictClauseBuilder[1] = conflictClauseBuilder[highest];
+        conflictClauseBuilder[highest] = literal;
+        return level[Literal.variable(conflictClauseBuilder[1])];
+    }
+
+    // Drops every literal of the learned clause that is implied by the others.  A literal is redundant if all the
+    // literals of its reason are already in the clause or are themselves redundant, checked recursively.
+    private void minimizeConflictClause() {
+        int abstractLevels = 0;
+        for ( int i = 1; i < conflictClauseSize; i++ ) {
+            abstractLevels |= abstractLevel( Literal.variable(conflictClauseBuilder[i]) );
+        }
+
+        int j = 1;
+        for ( int i = 1; i < conflictClauseSize; i++ ) {
+            int variable = Literal.variable(conflictClauseBuilder[i]);
+            if ( reason[variable] == NO_REASON || !isRedundant( variable, abstractLevels ) ) {
+                conflictClauseBuilder[j++] = conflictClauseBuilder[i];
+            }
+        }
+        conflictClauseSize = j;
+    }
+
+    // The recursion of the redundancy check runs on analyzeStack.  Variables found redundant stay marked in seen so
+    // later checks can stop at them.  If the check fails, the marks it added are undone.  abstractLevels is a
+    // bitmask of the levels in the clause: a reason literal from a level not in it can never be redundant.
+    private boolean isRedundant( int variable, int abstractLevels ) {
+        int[] data = clauses.getData();
+        int stackSize = 0;
+        int top = toClearSize;
+        analyzeStack[stackSize++] = variable;
+
+        while ( stackSize > 0 ) {
+            int clause = reason[analyzeStack[--stackSize]];
+            int start = clause + ClauseArena.HEADER;
+            int end = start + data[clause + ClauseArena.SIZE];
+            for ( int k = start + 1; k < end; k++ ) {
+                int other = Literal.variable(data[k]);
+                if ( !seen[other] && level[other] > 0 ) {
+                    if ( reason[other] != NO_REASON && ( abstractLevel(other) & abstractLevels ) != 0 ) {
+                        seen[other] = true;
+                        analyzeStack[stackSize++] = other;
+                        toClear[toClearSize++] = other;
+                    } else {
+                        for ( int i = top; i < toClearSize; i++ ) {
+                            seen[toClear[i]] = false;
+                        }
+                        toClearSize = top;
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    // The literal block distance of a clause: the number of different decision levels among its literals.  Clauses
+    // with a low LBD tie few decisions together and tend to be the most useful ones to learn.
+    private int computeLBD( int[] literals, int size ) {
+        lbdStamp++;
+        int lbd = 0;
+        for ( int i = 0; i < size; i++ ) {
+            int literalLevel = level[Literal.variable(literals[i])];
+            if ( levelStamps[literalLevel] != lbdStamp ) {
+                levelStamps[literalLevel] = lbdStamp;
+                lbd++;
+            }
+        }
+        return lbd;
+    }
+
+    private int abstractLevel( int variable ) {
+        return 1 << ( level[variable] & 31 );
+    }
+
+    private void bumpActivity( int variable ) {
+        activity[variable] += activityIncrement;
+        if ( activity[variable] > ACTIVITY_LIMIT ) {
+            // Scale everything down before the doubles overflow.  The order is unchanged.
+            for ( int i = 0; i <= maxVariable; i++ ) {
+                activity[i] /= ACTIVITY_LIMIT;
+            }
+            activityIncrement /= ACTIVITY_LIMIT;
+        }
+        variableHeap.increased( variable );
+    }
+
+    private void decayActivities() {
+        activityIncrement /= ACTIVITY_DECAY;
+    }
+
+    private void bumpClauseActivity( int clause ) {
+        float clauseActivity = clauses.getActivity( clause ) + (float) clauseActivityIncrement;
+        clauses.setActivity( clause, clauseActivity );
+        if ( clauseActivity > CLAUSE_ACTIVITY_LIMIT ) {
+            for ( int i = 0; i < numberOfLearnts; i++ ) {
+                clauses.setActivity( learnts[i], (float) ( clauses.getActivity( learnts[i] ) / CLAUSE_ACTIVITY_LIMIT ) );
+            }
+            clauseActivityIncrement /= CLAUSE_ACTIVITY_LIMIT;
+        }
+    }
+
+    private void decayClauseActivities() {
+        clauseActivityIncrement /= CLAUSE_ACTIVITY_DECAY;
+    }
+
+    // Every literal of a clause met during analysis is assigned, so its LBD can be measured again.  A clause that
+    // now spans fewer levels than when it was learned is kept with the lower score.
+    private void updateLBD( int clause ) {
+        int oldLBD = clauses.getLBD( clause );
+        if ( oldLBD <= GLUE_LBD ) {
+            return;
+        }
+        int[] data = clauses.getData();
+        int start = clause + ClauseArena.HEADER;
+        lbdStamp++;
+        int lbd = 0;
+        for ( int k = start; k < start + data[clause + ClauseArena.SIZE] && lbd < oldLBD; k++ ) {
+            int literalLevel = level[Literal.variable(data[k])];
+            if ( levelStamps[literalLevel] != lbdStamp ) {
+                levelStamps[literalLevel] = lbdStamp;
+                lbd++;
+            }
+        }
+        if ( lbd < oldLBD ) {
+            clauses.setLBD( clause, lbd );
+        }
+    }
+
+    // Deletes the worse half of the learned clauses, ranked by LBD and then by activity.  Glue clauses, binary
+    // clauses and clauses that are the reason of a current assignment are always kept.
+    private void reduceLearnts() {
+        Object event = SolverEvents.RECORDER.beginReduce();
+        int before = numberOfLearnts;
+        numberOfReductions++;
+        reduceInterval += REDUCE_INCREMENT;
+        nextReduce = numberOfConflicts + reduceInterval;
+
+        Integer[] order = new Integer[numberOfLearnts];
+        for ( int i = 0; i < numberOfLearnts; i++ ) {
+            order[i] = learnts[i];
+        }
+        // Worst first: high LBD, then low activity.
+        Arrays.sort( order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                int lbdA = clauses.getLBD( a );
+                int lbdB = clauses.getLBD( b );
+                if ( lbdA != lbdB ) {
+                    return Integer.compare( lbdB, lbdA );
+                }
+                return Float.compare( clauses.getActivity( a ), clauses.getActivity( b ) );
+            }
+        });
+
+        int limit = numberOfLearnts / 2;
+        int removed = 0;
+        int j = 0;
+        for ( int i = 0; i < order.length; i++ ) {
+            int clause = order[i];
+            if ( removed < limit && clauses.getLBD( clause ) > GLUE_LBD && clauses.size( clause ) > 2
+                    && !isLocked( clause ) ) {
+                if ( proof != null ) proof.delete( clauses, clause );
+                clauses.delete( clause );
+                removed++;
+            } else {
+                learnts[j++] = clause;
+            }
+        }
+        numberOfLearnts = j;
+        if ( DEBUG ) System.out.println("Reduced learned clauses by " + removed + ", " + numberOfLearnts + " left");
+
+        collectGarbage();
+        if ( event != null ) {
+            SolverEvents.RECORDER.commitReduce( event, before, numberOfLearnts, 4L * clauses.getData().length );
+        }
+    }
+
+    // A clause is locked while it is the reason for its first literal.
+    private boolean isLocked( int clause ) {
+        int first = clauses.literal( clause, 0 );
+        return reason[Literal.variable(first)] == clause && literalValue(first) == TRUE;
+    }
+
+    // Compacts the arena and moves every ref the search holds to the clause's new place.  The first two literals of
+    // each clause are always its watches, so the watch lists are simply built again.
+    private void collectGarbage() {
+        int[] forward = clauses.compact();
+        for ( int i = 0; i < trailSize; i++ ) {
+            int variable = Literal.variable(trail[i]);
+            if ( reason[variable] != NO_REASON ) {
+                reason[variable] = forward[reason[variable]];
+            }
+        }
+        for ( int i = 0; i < numberOfLearnts; i++ ) {
+            learnts[i] = forward[learnts[i]];
+        }
+
+        watches.clear();
+        for ( int ref = clauses.first(); ref < clauses.end(); ref = clauses.next(ref) ) {
+            if ( clauses.size( ref ) > 1 ) {
+                watchFirstTwo( ref );
+            }
+        }
+    }
+
+    // Shortens learned clauses with vivifyClause.  Runs on level 0.  A shortened clause replaces the old one in the
+    // arena and in learnts, keeping its LBD, if that is not longer, and its activity.  The new clauses are only
+    // watched once the arena is compacted at the end, so the learned units are only assigned then too, and the main
+    // loop propagates them.  Returns false if two of those units contradict each other, which means the formula is
+    // unsat.
+    private boolean vivify() {
+        nextVivify = numberOfConflicts + VIVIFY_INTERVAL;
+        if ( propagate() != NO_REASON ) {
+            return false;
+        }
+
+        int numberOfCandidates = 0;
+        Integer[] order = new Integer[numberOfLearnts];
+        for ( int i = 0; i < numberOfLearnts; i++ ) {
+            int clause = learnts[i];
+            if ( !clauses.isVivified( clause ) && clauses.size( clause ) > 2 ) {
+                order[numberOfCandidates++] = i;
+            }
+        }
+        // Best first: low LBD, then high activity.
+        Arrays.sort( order, 0, numberOfCandidates, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                int lbdA = clauses.getLBD( learnts[a] );
+                int lbdB = clauses.getLBD( learnts[b] );
+                if ( lbdA != lbdB ) {
+                    return Integer.compare( lbdA, lbdB );
+                }
+                return Float.compare( clauses.getActivity( learnts[b] ), clauses.getActivity( learnts[a] ) );
+            }
+        });
+
+        long limit = numberOfPropagations + ( numberOfPropagations - propagationsAtLastVivify ) / VIVIFY_EFFORT;
+        int[] units = new int[numberOfCandidates];
+        int numberOfUnits = 0;
+        int shortened = 0;
+        int tried = 0;
+        for ( ; tried < numberOfCandidates && numberOfPropagations < limit; tried++ ) {
+            int index = order[tried];
+            int clause = learnts[index];
+            clauses.setVivified( clause );
+            if ( isLocked( clause ) ) {
+                continue;
+            }
+            int size = vivifyClause( clause );
+            if ( size == clauses.size( clause ) ) {
+                continue;
+            }
+            shortened++;
+            if ( proof != null ) {
+                if ( size > 0 ) proof.add( vivifyBuffer, 0, size );
+                proof.delete( clauses, clause );
+            }
+            clauses.delete( clause );
+            if ( size == 1 ) {
+                units[numberOfUnits++] = vivifyBuffer[0];
+            }
+            if ( size <= 1 ) {
+                learnts[index] = NO_REASON;
+                continue;
+            }
+            int vivified = clauses.add( vivifyBuffer, 0, size, true );
+            clauses.setLBD( vivified, Math.min( clauses.getLBD( clause ), size ) );
+            clauses.setActivity( vivified, clauses.getActivity( clause ) );
+            clauses.setVivified( vivified );
+            learnts[index] = vivified;
+        }
+        propagationsAtLastVivify = numberOfPropagations;
+        if ( DEBUG ) System.out.println("Vivified " + shortened + " of " + tried + " learned clauses");
+        if ( shortened == 0 ) {
+            return true;
+        }
+
+        int j = 0;
+        for ( int i = 0; i < numberOfLearnts; i++ ) {
+            if ( learnts[i] != NO_REASON ) {
+                learnts[j++] = learnts[i];
+            }
+        }
+        numberOfLearnts = j;
+        collectGarbage();
+        for ( int i = 0; i < numberOfUnits; i++ ) {
+            if ( !enqueue( units[i], NO_REASON ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Makes the literals of a learned clause false one at a time, each on a level of its own, propagating after
+    // each.  A literal that is already false by then follows from the ones before it, so it is dropped.  A literal
+    // already true, or a conflict, means the literals so far can't all be false, so the clause is cut after it.
+    // The clause itself stays watched, but it can only force a literal once all its others are false, and such a
+    // literal is simply kept.  The literals left are put in vivifyBuffer.
+    // Returns how many are left, or 0 if the clause is satisfied on level 0.
+    private int vivifyClause(int clause) {
+        int size = clauses.size( clause );
+        if ( vivifyBuffer.length < size ) {
+            vivifyBuffer = new int[size];
+        }
+        // Propagation moves the watches around inside the clause, so it is copied first.
+        for ( int i = 0; i < size; i++ ) {
+            vivifyBuffer[i] = clauses.literal( clause, i );
+        }
+
+        int kept = 0;
+        for ( int i = 0; i < size; i++ ) {
+            int literal = vivifyBuffer[i];
+            byte value = literalValue( literal );
+            if ( value == FALSE ) {
+                continue;
+            }
+            if ( value == TRUE ) {
+                if ( level[Literal.variable( literal )] == 0 ) {
+                    kept = 0;
+                } else {
+                    vivifyBuffer[kept++] = literal;
+                }
+                break;
+            }
+            vivifyBuffer[kept++] = literal;
+            newDecisionLevel();
+            enqueue( Literal.negate( literal ), NO_REASON );
+            if ( propagate() != NO_REASON ) {
+                break;
+            }
+        }
+        cancelProbes();
+        return kept;
+    }
+
+    // Adds the clause built by analyze and assigns its first literal, which is unassigned after the backjump while
+    // every other literal is still false.  A learned unit clause becomes a level 0 assignment instead.
+    private void addConflictClause() {
+        if ( exchange != null && ( conflictClauseSize <= EXPORT_SIZE || conflictClauseLBD <= EXPORT_LBD ) ) {
+            exchange.publish( worker, conflictClauseBuilder, conflictClauseSize, conflictClauseLBD );
+        }
+        if ( proof != null ) proof.add( conflictClauseBuilder, 0, conflictClauseSize );
+        if ( conflictClauseSize == 1 ) {
+            enqueue( conflictClauseBuilder[0], NO_REASON );
+            return;
+        }
+
+        int conflictClause = clauses.add( conflictClauseBuilder, 0, conflictClauseSize, true );
+        if ( DEBUG ) System.out.println("Learned " + clauses.toString( conflictClause ));
+        clauses.setLBD( conflictClause, conflictClauseLBD );
+        bumpClauseActivity( conflictClause );
+        if ( numberOfLearnts == learnts.length ) {
+            learnts = Arrays.copyOf( learnts, numberOfLearnts * 2 );
+        }
+        learnts[numberOfLearnts++] = conflictClause;
+        watchFirstTwo( conflictClause );
+        enqueue( conflictClauseBuilder[0], conflictClause );
+    }
+
+    // Adds the clauses other workers published since the last call.  This only runs on level 0, so literals false
+    // there are dropped, satisfied clauses are skipped, and what is left is either a unit to assign or a clause
+    // whose literals are all unassigned.  Every worker searches the same formula, so whatever they learn holds here.
+    // Returns false if a clause is false on level 0, which means the formula is unsat.
+    private boolean importClauses() {
+        long published = exchange.getPublished();
+        if ( published - exchangeCursor > exchange.getCapacity() ) {
+            exchangeCursor = published - exchange.getCapacity();
+        }
+        for ( ; exchangeCursor < published; exchangeCursor++ ) {
+            ClauseExchange.Shared shared = exchange.get( exchangeCursor );
+            if ( shared == null || shared.source == worker ) {
+                continue;
+            }
+
+            int size = 0;
+            boolean satisfied = false;
+            for ( int literal : shared.literals ) {
+                byte value = literalValue( literal );
+                if ( value == TRUE ) {
+                    satisfied = true;
+                    break;
+                }
+                if ( value == UNASSIGNED ) {
+                    conflictClauseBuilder[size++] = literal;
+                }
+            }
+            if ( satisfied ) {
+                continue;
+            }
+            if ( size == 0 ) {
+                return false;
+            }
+            if ( size == 1 ) {
+                enqueue( conflictClauseBuilder[0], NO_REASON );
+                continue;
+            }
+
+            int clause = clauses.add( conflictClauseBuilder, 0, size, true );
+            clauses.setLBD( clause, Math.min( shared.lbd, size ) );
+            if ( numberOfLearnts == learnts.length ) {
+                learnts = Arrays.copyOf( learnts, numberOfLearnts * 2 );
+            }
+            learnts[numberOfLearnts++] = clause;
+            watchFirstTwo( clause );
+        }
+        return true;
+    }
+
+    // Watches the first two literals of a clause.  Unit clauses can't be watched and are kept in unitLiterals instead.
+    // Tautologies are deleted, so every clause of two or more literals left in the arena is watched.
+    private void attachClause(int clause) {
+        int size = clauses.size(clause);
+        if (size == 0) {
+            hasEmptyClause = true;
+        } else if (size == 1) {
+            unitLiterals.add(clauses.literal(clause, 0));
+        } else if (clauses.isTautology(clause)) {
+            clauses.delete(clause);
+        } else {
+            watchFirstTwo(clause);
+        }
+    }
+
+    private void watchFirstTwo(int clause) {
+        int first = clauses.literal(clause, 0);
+        int second = clauses.literal(clause, 1);
+        watches.add(first, clause, second);
+        watches.add(second, clause, first);
+    }
+
+    // Picks the unassigned variable with the highest activity.  Variables assigned since they were last put back in
+    // the heap are skipped as they come off the top.
+    // If all literals have been assigned, it returns -1.
+    private int pickLiteral() {
+        while ( !variableHeap.isEmpty() ) {
+            int variable = variableHeap.removeMax();
+            if ( assignment[variable] == UNASSIGNED ) {
+                return variable;
+            }
+        }
+
+        return -1;
+    }
+
+    // The value of a variable once solve has returned true.
+    boolean getValue(int variable) {
+        return assignment[variable] == TRUE;
+    }
+
+    long getNumberOfDecisions() {
+        return numberOfDecisions;
+    }
+
+    long getNumberOfConflicts() {
+        return numberOfConflicts;
+    }
+
+    long getNumberOfRestarts() {
+        return numberOfRestarts;
+    }
+
+    long getNumberOfReductions() {
+        return numberOfReductions;
+    }
+
+    // The number of assigned literals propagated through their watch lists.
+    long getNumberOfPropagations() {
+        return numberOfPropagations;
+    }
+
+    void setRestartPolicy(RestartPolicy restartPolicy) {
+        this.restartPolicy = restartPolicy;
+    }
+
+    // Diversifies a portfolio worker: the seed drives the random rephasing and breaks the ties in the initial
+    // variable order with tiny random activities.
+    void setSeed(long seed) {
+        random = new Random(seed);
+        for (int variable = 1; variable <= maxVariable; variable++) {
+            activity[variable] += random.nextDouble() * 1e-5;
+            variableHeap.increased(variable);
+        }
+    }
+
+    // Sets every phase to false (ORIGINAL), true (INVERTED) or at RANDOM before the search starts.
+    void setInitialPhase(int strategy) {
+        resetPhases(strategy);
+    }
+
+    void setExchange(ClauseExchange exchange, int worker) {
+        this.exchange = exchange;
+        this.worker = worker;
+    }
+
+    void setMetrics(SolverMetrics.Slot metrics) {
+        this.metrics = metrics;
+    }
+
+    void setProof(ProofWriter proof) {
+        this.proof = proof;
+    }
+
+    private void publishMetrics() {
+        lastPublished = System.nanoTime();
+        metrics.decisions = numberOfDecisions;
+        metrics.conflicts = numberOfConflicts;
+        metrics.propagations = numberOfPropagations;
+        metrics.restarts = numberOfRestarts;
+        metrics.trailDepth = trailSize;
+        metrics.learnedClauses = numberOfLearnts;
+        metrics.clauseDatabaseBytes = 4L * clauses.getData().length;
+    }
+
+    void setStopFlag(AtomicBoolean stop) {
+        this.stop = stop;
+    }
+
+    void setBudget(Budget budget) {
+        this.budget = budget;
+    }
+
+    private boolean isBudgetSpent() {
+        return numberOfConflicts - conflictsAtStart >= budget.conflicts
+                || numberOfPropagations - propagationsAtStart >= budget.propagations
+                || budget.isInterrupted()
+                || ( ( ++budgetChecks & CLOCK_CHECK_MASK ) == 0
+                        && ( budget.isTimeUp() || 4L * clauses.getData().length > budget.memory ) );
+    }
+
+    // Whether solve returned because another worker set the stop flag or the budget ran out, rather than because the
+    // formula is unsat.
+    boolean isStopped() {
+        return stopped;
+    }
+
+    // Whether solve returned because the budget ran out.
+    boolean isOutOfBudget() {
+        return outOfBudget;
+    }
+
+    // Whether the last solve returned false because an assumption was false, rather than because the formula is unsat.
+    boolean isAssumptionFailed() {
+        return assumptionFailed;
+    }
+
+    // The assumptions that can't all be true together, the false one first.  Empty unless isAssumptionFailed.
+    int[] getFailedAssumptions() {
+        return failedAssumptions;
+    }
+
+    void setDEBUG () {
+        DEBUG = true;
+    }
+}
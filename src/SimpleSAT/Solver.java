@@ -1,5 +1,9 @@
 package SimpleSAT;
 
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+
 public final class Solver {
 
 
@@ -8,25 +12,200 @@ public final class Solver {
 
         boolean DEBUG = false;
         boolean BRUTEFORCE = false;
-
-        System.out.println("Loading file...");
+        boolean GRAYCODE = false;
+        boolean COUNT = false;
+        RestartPolicy restartPolicy = null;
+        String restartPolicyName = null;
+        // 0 until -j is given.
+        int threads = 0;
+        boolean cubeAndConquer = false;
+        boolean BATCH = false;
+        boolean JSON = false;
+        long timeoutMillis = 0;
+        double progressSeconds = 0;
+        String proofFile = null;
+        long timeLimitMillis = 0;
+        long conflictLimit = 0;
+        long propagationLimit = 0;
+        long memoryLimit = 0;
 
         String fileLocation = args[args.length - 1];
 
-        for ( String s : args ) {
+        for ( int i = 0; i < args.length - 1; i++ ) {
+            String s = args[i];
             if ( s.equals("-b") ) {
                 BRUTEFORCE = true;
             }
 
+            // -g searches exhaustively in Gray code order and -m counts every model that way.
+            if ( s.equals("-g") ) {
+                GRAYCODE = true;
+            }
+
+            if ( s.equals("-m") ) {
+                COUNT = true;
+            }
+
             if ( s.equals("-d") ) {
                 DEBUG = true;
             }
 
+            // -r luby|geometric|glucose|none picks the restart policy.
+            if ( s.equals("-r") && i + 1 < args.length - 1 ) {
+                restartPolicyName = args[++i];
+                restartPolicy = RestartPolicy.forName( restartPolicyName );
+                if ( restartPolicy == null ) {
+                    System.out.println("Unknown restart policy " + args[i] + ". Use luby, geometric, glucose or none.");
+                    System.exit(1);
+                }
+            }
+
+            // -c splits the formula into cubes and solves them on the -j threads, or on every core without -j.
+            if ( s.equals("-c") ) {
+                cubeAndConquer = true;
+            }
+
+            // -j N runs a portfolio of N search threads.
+            if ( s.equals("-j") && i + 1 < args.length - 1 ) {
+                try {
+                    threads = Integer.parseInt( args[++i] );
+                } catch ( NumberFormatException e ) {
+                    threads = 0;
+                }
+                if ( threads < 1 ) {
+                    System.out.println("-j needs a positive number of threads.");
+                    System.exit(1);
+                }
+            }
+
+            // -progress S prints the live counters of the search every S seconds.
+            if ( s.equals("-progress") && i + 1 < args.length - 1 ) {
+                try {
+                    progressSeconds = Double.parseDouble( args[++i] );
+                } catch ( NumberFormatException e ) {
+                    progressSeconds = -1;
+                }
+                if ( progressSeconds <= 0 ) {
+                    System.out.println("-progress needs a positive number of seconds.");
+                    System.exit(1);
+                }
+            }
+
+            // -proof FILE writes a binary DRAT proof of the search to FILE, for checking an UNSAT answer.
+            if ( ( s.equals("-proof") || s.equals("--proof") ) && i + 1 < args.length - 1 ) {
+                proofFile = args[++i];
+            }
+
+            // -time-limit S, -conflict-limit N, -propagation-limit N and -memory-limit MB make the search give up with
+            // UNKNOWN once it has run for S seconds, reached N conflicts or propagations, or its clause database has
+            // grown past MB megabytes.  With -j all but the time are counted per worker, with -c per cube, and with
+            // -batch per instance.  They don't apply to -b, -g and -m.
+            if ( ( s.equals("-time-limit") || s.equals("--time-limit") ) && i + 1 < args.length - 1 ) {
+                try {
+                    timeLimitMillis = (long) ( Double.parseDouble( args[++i] ) * 1000 );
+                } catch ( NumberFormatException e ) {
+                    timeLimitMillis = -1;
+                }
+                if ( timeLimitMillis <= 0 ) {
+                    System.out.println("-time-limit needs a positive number of seconds.");
+                    System.exit(1);
+                }
+            }
+
+            if ( ( s.equals("-conflict-limit") || s.equals("--conflict-limit") ) && i + 1 < args.length - 1 ) {
+                conflictLimit = parseLimit( args[++i], "-conflict-limit" );
+            }
+
+            if ( ( s.equals("-propagation-limit") || s.equals("--propagation-limit") ) && i + 1 < args.length - 1 ) {
+                propagationLimit = parseLimit( args[++i], "-propagation-limit" );
+            }
+
+            if ( ( s.equals("-memory-limit") || s.equals("--memory-limit") ) && i + 1 < args.length - 1 ) {
+                memoryLimit = Math.min( parseLimit( args[++i], "-memory-limit" ), Long.MAX_VALUE >> 20 ) << 20;
+            }
+
+            // -batch solves every instance of the directory or manifest given last, on the -j threads or on every
+            // core, and prints a line of CSV, or of JSON with -json, for each.  -timeout S stops an instance after
+            // S seconds.
+            if ( s.equals("-batch") ) {
+                BATCH = true;
+            }
+
+            if ( s.equals("-json") ) {
+                JSON = true;
+            }
+
+            if ( s.equals("-timeout") && i + 1 < args.length - 1 ) {
+                try {
+                    timeoutMillis = (long) ( Double.parseDouble( args[++i] ) * 1000 );
+                } catch ( NumberFormatException e ) {
+                    timeoutMillis = -1;
+                }
+                if ( timeoutMillis <= 0 ) {
+                    System.out.println("-timeout needs a positive number of seconds.");
+                    System.exit(1);
+                }
+            }
+
+        }
+
+        // Clauses other threads share are not in the proof, so it needs the search to run alone.
+        if ( proofFile != null && ( threads > 1 || cubeAndConquer ) ) {
+            System.out.println("-proof works with a single search thread only, not with -j or -c.");
+            System.exit(1);
+        }
+
+        if ( BATCH ) {
+            int workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+            Batch batch = new Batch( Paths.get( fileLocation ), workers, timeoutMillis, JSON );
+            if ( restartPolicyName != null ) batch.setRestartPolicy( restartPolicyName );
+            batch.setLimits( timeLimitMillis, conflictLimit, propagationLimit, memoryLimit );
+            try {
+                batch.run();
+            } catch (IOException e) {
+                System.out.println("Could not read " + fileLocation + ": " + e.getMessage());
+                System.exit(2);
+            } catch (InterruptedException e) {
+                System.exit(2);
+            }
+            return;
         }
 
-        final Formula formula = new Formula(fileLocation);
+        System.out.println("Loading file...");
+
+        // The last argument is the file to solve, or - to read it from stdin.
+        final Formula formula;
+        try {
+            formula = new Formula(fileLocation);
+        } catch (NoSuchFileException e) {
+            System.out.println("Could not find file " + fileLocation + ". Try using the full path.");
+            System.exit(1);
+            return;
+        } catch (IOException e) {
+            System.out.println("Could not read " + fileLocation + ": " + e.getMessage());
+            System.exit(2);
+            return;
+        }
 
         if ( DEBUG ) formula.setDEBUG();
+        formula.printSummary();
+        if ( progressSeconds > 0 ) formula.setProgressInterval( progressSeconds );
+        if ( restartPolicy != null ) formula.setRestartPolicy( restartPolicy );
+        if ( proofFile != null ) formula.setProof( Paths.get( proofFile ) );
+        if ( timeLimitMillis > 0 ) formula.setTimeLimit( timeLimitMillis );
+        if ( conflictLimit > 0 ) formula.setConflictLimit( conflictLimit );
+        if ( propagationLimit > 0 ) formula.setPropagationLimit( propagationLimit );
+        if ( memoryLimit > 0 ) formula.setMemoryLimit( memoryLimit );
+        if ( cubeAndConquer ) {
+            formula.setCubeAndConquer( true );
+            formula.setThreads( threads > 0 ? threads : Runtime.getRuntime().availableProcessors() );
+        }
+        else if ( threads > 0 ) {
+            formula.setThreads( threads );
+        }
+        else if ( BRUTEFORCE ) {
+            formula.setThreads( Runtime.getRuntime().availableProcessors() );
+        }
 
         long startTime = System.nanoTime();
 
@@ -34,8 +213,17 @@ public final class Solver {
             System.out.println("Starting brute force solution...");
             formula.bruteForceSolution();
         }
+        else if ( GRAYCODE || COUNT ) {
+            System.out.println("Starting Gray code search...");
+            formula.grayCodeSolution( COUNT );
+        }
         else {
-            formula.solve();
+            try {
+                formula.solveAndPrint();
+            } catch (IOException e) {
+                System.out.println("Could not write proof to " + proofFile + ": " + e.getMessage());
+                System.exit(2);
+            }
         }
 
         long endTime = System.nanoTime();
@@ -43,4 +231,19 @@ public final class Solver {
         long duration = (endTime - startTime);
         System.out.println("Execution time: " + duration/1000000 + "ms");
     }
+
+    // Exits if the limit is not a positive number.
+    private static long parseLimit( String value, String option ) {
+        long limit;
+        try {
+            limit = Long.parseLong( value );
+        } catch ( NumberFormatException e ) {
+            limit = -1;
+        }
+        if ( limit <= 0 ) {
+            System.out.println(option + " needs a positive number.");
+            System.exit(1);
+        }
+        return limit;
+    }
 }
\ No newline at end of file
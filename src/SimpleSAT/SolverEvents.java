@@ -0,0 +1,76 @@
+package SimpleSAT;
+
+// Records the phases of a solve as Java Flight Recorder events.  Flight Recorder needs Java 11, while the solver
+// is built for Java 7, so the events themselves live in JfrEvents, under jfr/, which is built separately with JDK 11
+// or later and loaded here if it is on the class path.  Without it, or on an older JVM, RECORDER is this class,
+// which records nothing.  With it, the events are recorded by a recording that enables them, for example
+//   java -XX:StartFlightRecording=filename=solve.jfr -cp <classes> SimpleSAT.Solver file.cnf
+// Each begin method returns the event to hand to the matching commit method, or null if no recording wants that
+// event, and then nothing is allocated or timed.  Propagation and conflict analysis happen far too often to record
+// each time, so only every PROPAGATE_SAMPLE-th and CONFLICT_SAMPLE-th one is.
+
+class SolverEvents {
+    static final int PROPAGATE_SAMPLE = 1024;
+    static final int CONFLICT_SAMPLE = 64;
+
+    static final SolverEvents RECORDER = load();
+
+    SolverEvents() {
+    }
+
+    private static SolverEvents load() {
+        try {
+            return (SolverEvents) Class.forName("SimpleSAT.JfrEvents").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new SolverEvents();
+        }
+    }
+
+    Object beginParse() {
+        return null;
+    }
+
+    void commitParse(Object event, String source, int variables, int clauses) {
+    }
+
+    Object beginPreprocess() {
+        return null;
+    }
+
+    void commitPreprocess(Object event, int subsumed, int strengthened, int eliminated, int clauses) {
+    }
+
+    // One call of solve on a search, from the first propagation to its answer.
+    Object beginSolve() {
+        return null;
+    }
+
+    void commitSolve(Object event, String result, int assumptions, long decisions, long conflicts,
+            long propagations) {
+    }
+
+    Object beginPropagate() {
+        return null;
+    }
+
+    void commitPropagate(Object event, long literals, boolean conflict) {
+    }
+
+    // From the start of a conflict's analysis until the learned clause is added.
+    Object beginConflict() {
+        return null;
+    }
+
+    void commitConflict(Object event, int level, int backjumpLevel, int size, int lbd) {
+    }
+
+    void restart(long conflicts, int level, int trail) {
+    }
+
+    Object beginReduce() {
+        return null;
+    }
+
+    void commitReduce(Object event, int before, int after, long bytes) {
+    }
+}
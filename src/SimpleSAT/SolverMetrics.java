@@ -0,0 +1,132 @@
+package SimpleSAT;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Collects the counters of the searches of one solve.
+// The counters themselves stay plain fields of each search, so counting costs nothing extra.  Every so often a
+// search copies them into its own slot here, which only it writes to, and readers sum the slots.  A reading can
+// therefore be a few hundred conflicts behind, which is all a progress report needs.
+
+final class SolverMetrics implements SolverMetricsMXBean {
+    private static final String NAME = "SimpleSAT:type=Solver";
+
+    // The published counters of one search.
+    static final class Slot {
+        volatile long decisions;
+        volatile long conflicts;
+        volatile long propagations;
+        volatile long restarts;
+        volatile int trailDepth;
+        volatile int learnedClauses;
+        volatile long clauseDatabaseBytes;
+    }
+
+    private final CopyOnWriteArrayList<Slot> slots = new CopyOnWriteArrayList<>();
+    private final long start = System.nanoTime();
+    private ObjectName registeredName;
+
+    Slot newSlot() {
+        Slot slot = new Slot();
+        slots.add(slot);
+        return slot;
+    }
+
+    // Publishes these metrics on the platform MBean server.  Returns false if they can't be, for instance because
+    // another solve in this JVM already has.
+    boolean register() {
+        try {
+            ObjectName name = new ObjectName(NAME);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            registeredName = name;
+            return true;
+        } catch (JMException e) {
+            return false;
+        }
+    }
+
+    void unregister() {
+        if (registeredName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(registeredName);
+        } catch (JMException e) {
+            // Already gone.
+        }
+        registeredName = null;
+    }
+
+    @Override
+    public long getDecisions() {
+        long sum = 0;
+        for (Slot slot : slots) sum += slot.decisions;
+        return sum;
+    }
+
+    @Override
+    public long getConflicts() {
+        long sum = 0;
+        for (Slot slot : slots) sum += slot.conflicts;
+        return sum;
+    }
+
+    @Override
+    public long getPropagations() {
+        long sum = 0;
+        for (Slot slot : slots) sum += slot.propagations;
+        return sum;
+    }
+
+    @Override
+    public long getRestarts() {
+        long sum = 0;
+        for (Slot slot : slots) sum += slot.restarts;
+        return sum;
+    }
+
+    @Override
+    public double getDecisionsPerSecond() {
+        return getDecisions() / getElapsedSeconds();
+    }
+
+    @Override
+    public double getConflictsPerSecond() {
+        return getConflicts() / getElapsedSeconds();
+    }
+
+    @Override
+    public double getPropagationsPerSecond() {
+        return getPropagations() / getElapsedSeconds();
+    }
+
+    @Override
+    public int getTrailDepth() {
+        int deepest = 0;
+        for (Slot slot : slots) deepest = Math.max(deepest, slot.trailDepth);
+        return deepest;
+    }
+
+    @Override
+    public long getLearnedClauses() {
+        long sum = 0;
+        for (Slot slot : slots) sum += slot.learnedClauses;
+        return sum;
+    }
+
+    @Override
+    public long getClauseDatabaseBytes() {
+        long sum = 0;
+        for (Slot slot : slots) sum += slot.clauseDatabaseBytes;
+        return sum;
+    }
+
+    @Override
+    public double getElapsedSeconds() {
+        return (System.nanoTime() - start) / 1e9;
+    }
+}
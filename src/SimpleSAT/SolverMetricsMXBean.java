@@ -0,0 +1,30 @@
+package SimpleSAT;
+
+// Live counters of a running solve, published over JMX as SimpleSAT:type=Solver.  Counts are summed over every
+// search of the solve and rates are averaged since it started.
+
+public interface SolverMetricsMXBean {
+    long getDecisions();
+
+    long getConflicts();
+
+    long getPropagations();
+
+    long getRestarts();
+
+    double getDecisionsPerSecond();
+
+    double getConflictsPerSecond();
+
+    double getPropagationsPerSecond();
+
+    // The deepest trail among the searches.
+    int getTrailDepth();
+
+    long getLearnedClauses();
+
+    // The bytes taken by the clause arenas of the searches.
+    long getClauseDatabaseBytes();
+
+    double getElapsedSeconds();
+}
@@ -0,0 +1,11 @@
+package SimpleSAT;
+
+// The answer of Formula.solve with assumptions.  UNSAT means unsat under the assumptions; if none of them is to
+// blame, Formula.failedAssumptions is empty and the formula itself is unsat.  UNKNOWN means the solve ran out of
+// budget or was interrupted before it found out.
+
+public enum Status {
+    SAT,
+    UNSAT,
+    UNKNOWN
+}
@@ -0,0 +1,101 @@
+package SimpleSAT;
+
+import java.util.Arrays;
+
+// A binary max-heap of variables ordered by activity, used to pick decision variables.
+// indices[v] is the position of variable v in heap, or -1 if v is not in the heap, so a variable whose activity was
+// bumped can be moved up in O(log n) and membership is checked in O(1).
+// The activity array is owned by the search.  Activities may only increase while a variable is in the heap, and the
+// search calls increased after each bump.
+
+class VariableHeap {
+    private double[] activity;
+    private int[] heap;
+    private int[] indices;
+    private int size;
+
+    VariableHeap(double[] activity, int maxVariable) {
+        this.activity = activity;
+        heap = new int[maxVariable + 1];
+        indices = new int[maxVariable + 1];
+        Arrays.fill(indices, -1);
+        size = 0;
+    }
+
+    // Takes over the search's activity array after it grew to hold variables up to maxVariable.
+    void grow(double[] activity, int maxVariable) {
+        this.activity = activity;
+        int old = indices.length;
+        heap = Arrays.copyOf(heap, maxVariable + 1);
+        indices = Arrays.copyOf(indices, maxVariable + 1);
+        Arrays.fill(indices, old, maxVariable + 1, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int variable) {
+        return indices[variable] >= 0;
+    }
+
+    void insert(int variable) {
+        if (contains(variable)) {
+            return;
+        }
+        indices[variable] = size;
+        heap[size++] = variable;
+        percolateUp(indices[variable]);
+    }
+
+    // Restores the heap order after the activity of a variable went up.
+    void increased(int variable) {
+        if (contains(variable)) {
+            percolateUp(indices[variable]);
+        }
+    }
+
+    int removeMax() {
+        int top = heap[0];
+        heap[0] = heap[--size];
+        indices[heap[0]] = 0;
+        indices[top] = -1;
+        if (size > 1) {
+            percolateDown(0);
+        }
+        return top;
+    }
+
+    private void percolateUp(int position) {
+        int variable = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >> 1;
+            if (activity[variable] <= activity[heap[parent]]) {
+                break;
+            }
+            heap[position] = heap[parent];
+            indices[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = variable;
+        indices[variable] = position;
+    }
+
+    private void percolateDown(int position) {
+        int variable = heap[position];
+        while (2 * position + 1 < size) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && activity[heap[child + 1]] > activity[heap[child]]) {
+                child++;
+            }
+            if (activity[heap[child]] <= activity[variable]) {
+                break;
+            }
+            heap[position] = heap[child];
+            indices[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = variable;
+        indices[variable] = position;
+    }
+}
@@ -0,0 +1,74 @@
+package SimpleSAT;
+
+import java.util.Arrays;
+
+// Per-literal watch lists for two-watched-literal unit propagation.
+// Every clause of two or more literals is watched by its first two literals.  The list belonging to a literal holds
+// the ref of each clause watching it together with a blocker: another literal of the same clause.  If the blocker is
+// already true the clause is satisfied and propagation can skip it without looking at the clause at all.
+//
+// Lists are indexed by the encoded literal, see Literal.
+
+class Watches {
+    private int[][] clauses;
+    private int[][] blockers;
+    private int[] sizes;
+
+    Watches(final int maxVariable) {
+        int numberOfLiterals = 2 * (maxVariable + 1);
+        clauses = new int[numberOfLiterals][];
+        blockers = new int[numberOfLiterals][];
+        sizes = new int[numberOfLiterals];
+        for (int i = 0; i < numberOfLiterals; i++) {
+            clauses[i] = new int[4];
+            blockers[i] = new int[4];
+        }
+    }
+
+    void add(int literal, int clause, int blocker) {
+        int size = sizes[literal];
+        if (size == clauses[literal].length) {
+            clauses[literal] = Arrays.copyOf(clauses[literal], size * 2);
+            blockers[literal] = Arrays.copyOf(blockers[literal], size * 2);
+        }
+        clauses[literal][size] = clause;
+        blockers[literal][size] = blocker;
+        sizes[literal] = size + 1;
+    }
+
+    // The arrays below are handed out directly so the propagation loop can compact a list in place.  Adding to a
+    // list may replace its arrays, so callers must not add to the list they are currently walking.
+    int[] getClauses(int literal) {
+        return clauses[literal];
+    }
+
+    int[] getBlockers(int literal) {
+        return blockers[literal];
+    }
+
+    int getSize(int literal) {
+        return sizes[literal];
+    }
+
+    void setSize(int literal, int size) {
+        sizes[literal] = size;
+    }
+
+    // Adds empty lists for the literals of variables up to maxVariable.
+    void grow(final int maxVariable) {
+        int numberOfLiterals = 2 * (maxVariable + 1);
+        int old = sizes.length;
+        clauses = Arrays.copyOf(clauses, numberOfLiterals);
+        blockers = Arrays.copyOf(blockers, numberOfLiterals);
+        sizes = Arrays.copyOf(sizes, numberOfLiterals);
+        for (int i = old; i < numberOfLiterals; i++) {
+            clauses[i] = new int[4];
+            blockers[i] = new int[4];
+        }
+    }
+
+    // Empties every list.  The arrays are kept for reuse.
+    void clear() {
+        Arrays.fill(sizes, 0);
+    }
+}